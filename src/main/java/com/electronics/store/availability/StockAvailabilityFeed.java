@@ -0,0 +1,303 @@
+package com.electronics.store.availability;
+
+import com.electronics.store.exception.TooManySubscribersException;
+import com.electronics.store.mapper.ProductResponseMapper;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.ProductCategory;
+import com.electronics.store.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Single change feed behind the stock availability stream. Stock mutations only mark a product as
+ * changed; every {@code store.availability.coalesce-ms} the changed products are loaded in one
+ * query and pushed to the subscribers of those products or their categories, so a burst of
+ * mutations on one product reaches each client as a single event.
+ *
+ * <p>Events are named {@code stock} (a {@link com.electronics.store.dto.ProductResponse}) or
+ * {@code removed} (the id of a deleted product).
+ *
+ * <p>Sending blocks on the client, so it never happens on the scheduler thread: each subscriber
+ * gets its own queue, drained by at most one task at a time on a pool of {@code
+ * store.availability.send-threads} threads. A subscriber whose send fails, or that falls more than
+ * {@value #MAX_PENDING_EVENTS} events behind, is dropped. At most {@code
+ * store.availability.max-subscribers} streams are open at once.
+ */
+@Slf4j
+@Component
+public class StockAvailabilityFeed {
+  static final int MAX_PENDING_EVENTS = 256;
+
+  private final ProductRepository productRepository;
+  private final ProductResponseMapper productResponseMapper;
+  private final long timeoutMillis;
+  private final int maxSubscribers;
+  private final Executor sendExecutor;
+  private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+  private final Map<Long, Set<Subscription>> byProduct = new ConcurrentHashMap<>();
+  private final Map<ProductCategory, Set<Subscription>> byCategory = new ConcurrentHashMap<>();
+  private final Set<Subscription> allProducts = ConcurrentHashMap.newKeySet();
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public StockAvailabilityFeed(
+      ProductRepository productRepository,
+      ProductResponseMapper productResponseMapper,
+      @Value("${store.availability.stream-timeout:10m}") Duration timeout,
+      @Value("${store.availability.max-subscribers:1000}") int maxSubscribers,
+      @Value("${store.availability.send-threads:4}") int sendThreads) {
+    this(
+        productRepository,
+        productResponseMapper,
+        timeout,
+        maxSubscribers,
+        // Each subscriber has at most one send task queued or running.
+        new ThreadPoolExecutor(
+            sendThreads,
+            sendThreads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxSubscribers),
+            new CustomizableThreadFactory("stock-events-")));
+  }
+
+  StockAvailabilityFeed(
+      ProductRepository productRepository,
+      ProductResponseMapper productResponseMapper,
+      Duration timeout,
+      int maxSubscribers,
+      Executor sendExecutor) {
+    this.productRepository = productRepository;
+    this.productResponseMapper = productResponseMapper;
+    this.timeoutMillis = timeout.toMillis();
+    this.maxSubscribers = maxSubscribers;
+    this.sendExecutor = sendExecutor;
+  }
+
+  @PreDestroy
+  public void close() {
+    if (sendExecutor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  /** Marks a product as changed, once the surrounding transaction (if any) has committed. */
+  public void publish(Long productId) {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      changed.add(productId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            changed.add(productId);
+          }
+        });
+  }
+
+  /**
+   * Opens a stream of changes to the given products and to every product in the given
+   * categories; with neither, to all products. The current state of explicitly requested
+   * products is sent right away.
+   *
+   * @throws TooManySubscribersException if {@code store.availability.max-subscribers} streams are
+   *     open already
+   */
+  public SseEmitter subscribe(Collection<Long> productIds, Collection<ProductCategory> categories) {
+    Subscription subscription =
+        new Subscription(new SseEmitter(timeoutMillis), productIds, categories);
+    subscriptions.add(subscription);
+    if (subscriptions.size() > maxSubscribers) {
+      subscriptions.remove(subscription);
+      throw new TooManySubscribersException(
+          String.format(
+              "Stock streams are limited to %s at a time, try again later", maxSubscribers));
+    }
+    productIds.forEach(productId -> add(byProduct, productId, subscription));
+    categories.forEach(category -> add(byCategory, category, subscription));
+    if (productIds.isEmpty() && categories.isEmpty()) {
+      allProducts.add(subscription);
+    }
+    subscription.emitter.onCompletion(() -> unsubscribe(subscription));
+    subscription.emitter.onTimeout(() -> unsubscribe(subscription));
+    subscription.emitter.onError(error -> unsubscribe(subscription));
+
+    if (!productIds.isEmpty()) {
+      for (Product product : productRepository.findAllById(productIds)) {
+        send(subscription, "stock", productResponseMapper.toDto(product));
+      }
+    }
+    return subscription.emitter;
+  }
+
+  @Scheduled(fixedDelayString = "${store.availability.coalesce-ms:250}")
+  public void flush() {
+    if (changed.isEmpty()) {
+      return;
+    }
+    List<Long> productIds = new ArrayList<>();
+    for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+      productIds.add(iterator.next());
+      // Removed before publishing, so a change arriving from now on is sent in the next window.
+      iterator.remove();
+    }
+    Map<Long, Product> products =
+        productRepository.findAllById(productIds).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    for (Long productId : productIds) {
+      Product product = products.get(productId);
+      Set<Subscription> targets = new LinkedHashSet<>(allProducts);
+      targets.addAll(byProduct.getOrDefault(productId, Set.of()));
+      if (product == null) {
+        targets.forEach(subscription -> send(subscription, "removed", productId));
+        continue;
+      }
+      targets.addAll(byCategory.getOrDefault(product.getCategory(), Set.of()));
+      if (!targets.isEmpty()) {
+        Object event = productResponseMapper.toDto(product);
+        targets.forEach(subscription -> send(subscription, "stock", event));
+      }
+    }
+  }
+
+  public int subscriberCount() {
+    return subscriptions.size();
+  }
+
+  private void send(Subscription subscription, String name, Object data) {
+    if (subscription.closed.get()) {
+      return;
+    }
+    if (subscription.pendingCount.incrementAndGet() > MAX_PENDING_EVENTS) {
+      drop(subscription, null);
+      return;
+    }
+    subscription.pending.add(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+    scheduleDrain(subscription);
+  }
+
+  private void scheduleDrain(Subscription subscription) {
+    if (!subscription.draining.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      sendExecutor.execute(() -> drain(subscription));
+    } catch (RejectedExecutionException e) {
+      subscription.draining.set(false);
+      drop(subscription, e);
+    }
+  }
+
+  private void drain(Subscription subscription) {
+    try {
+      SseEmitter.SseEventBuilder event;
+      while (!subscription.closed.get() && (event = subscription.pending.poll()) != null) {
+        subscription.pendingCount.decrementAndGet();
+        subscription.emitter.send(event);
+      }
+    } catch (IOException | IllegalStateException e) {
+      drop(subscription, e);
+    } finally {
+      subscription.draining.set(false);
+    }
+    if (!subscription.closed.get() && !subscription.pending.isEmpty()) {
+      scheduleDrain(subscription);
+    }
+  }
+
+  /** Ends a subscriber that went away or cannot keep up. */
+  private void drop(Subscription subscription, Exception cause) {
+    log.debug("Dropping a stock stream subscriber", cause);
+    unsubscribe(subscription);
+    subscription.pending.clear();
+    try {
+      subscription.emitter.complete();
+    } catch (IllegalStateException e) {
+      // already completed by the container
+    }
+  }
+
+  private void unsubscribe(Subscription subscription) {
+    if (!subscription.closed.compareAndSet(false, true)) {
+      return;
+    }
+    subscription.productIds.forEach(productId -> remove(byProduct, productId, subscription));
+    subscription.categories.forEach(category -> remove(byCategory, category, subscription));
+    allProducts.remove(subscription);
+    subscriptions.remove(subscription);
+  }
+
+  private static <K> void add(Map<K, Set<Subscription>> index, K key, Subscription subscription) {
+    index.compute(
+        key,
+        (ignored, subscribers) -> {
+          Set<Subscription> result =
+              subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+          result.add(subscription);
+          return result;
+        });
+  }
+
+  private static <K> void remove(
+      Map<K, Set<Subscription>> index, K key, Subscription subscription) {
+    index.computeIfPresent(
+        key,
+        (ignored, subscribers) -> {
+          subscribers.remove(subscription);
+          return subscribers.isEmpty() ? null : subscribers;
+        });
+  }
+
+  private static final class Subscription {
+    final SseEmitter emitter;
+    final Collection<Long> productIds;
+    final Collection<ProductCategory> categories;
+    final AtomicBoolean closed = new AtomicBoolean();
+    final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+    final AtomicInteger pendingCount = new AtomicInteger();
+    final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscription(
+        SseEmitter emitter, Collection<Long> productIds, Collection<ProductCategory> categories) {
+      this.emitter = emitter;
+      this.productIds = productIds;
+      this.categories = categories;
+    }
+  }
+}
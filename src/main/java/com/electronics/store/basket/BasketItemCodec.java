@@ -0,0 +1,71 @@
+package com.electronics.store.basket;
+
+import com.electronics.store.model.BasketItem;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a basket's lines: a format version byte, the line count, then each line's
+ * product id and quantity, all as unsigned LEB128 varints. Typical lines take three to four
+ * bytes.
+ */
+public final class BasketItemCodec {
+  static final byte FORMAT_VERSION = 1;
+
+  private BasketItemCodec() {}
+
+  public static byte[] encode(List<BasketItem> items) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(2 + items.size() * 4);
+    out.write(FORMAT_VERSION);
+    writeVarLong(out, items.size());
+    for (BasketItem item : items) {
+      writeVarLong(out, item.getProductId());
+      writeVarLong(out, item.getQuantity());
+    }
+    return out.toByteArray();
+  }
+
+  public static List<BasketItem> decode(byte[] encoded) {
+    if (encoded.length == 0 || encoded[0] != FORMAT_VERSION) {
+      throw new IllegalStateException(
+          String.format(
+              "Unsupported basket item format: %s", encoded.length == 0 ? "empty" : encoded[0]));
+    }
+    int[] position = {1};
+    int count = Math.toIntExact(readVarLong(encoded, position));
+    List<BasketItem> items = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long productId = readVarLong(encoded, position);
+      int quantity = Math.toIntExact(readVarLong(encoded, position));
+      items.add(new BasketItem(productId, quantity));
+    }
+    return items;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Basket ids and quantities cannot be negative: " + value);
+    }
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(byte[] encoded, int[] position) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (position[0] >= encoded.length) {
+        throw new IllegalStateException("Truncated basket item data");
+      }
+      byte next = encoded[position[0]++];
+      value |= (long) (next & 0x7F) << shift;
+      if (next >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Malformed varint in basket item data");
+  }
+}
@@ -0,0 +1,9 @@
+package com.electronics.store.basket;
+
+/** How basket lines are persisted, selected by {@code store.basket.storage}. */
+public enum BasketItemStorage {
+  /** One {@code basket_items} row per line; Hibernate rewrites all of them on every change. */
+  COLLECTION,
+  /** All lines in the basket row's {@code encoded_items} column, see {@link BasketItemCodec}. */
+  COMPACT
+}
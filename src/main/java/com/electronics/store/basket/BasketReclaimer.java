@@ -0,0 +1,108 @@
+package com.electronics.store.basket;
+
+import com.electronics.store.ledger.StockMovement;
+import com.electronics.store.model.Basket;
+import com.electronics.store.model.BasketItem;
+import com.electronics.store.repository.BasketRepository;
+import com.electronics.store.reservation.BasketReservations;
+import com.electronics.store.service.ProductService;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Deletes baskets whose lines have not changed for {@code store.basket.abandoned-after} and puts
+ * the stock they still hold back, e.g. lines whose reservations were lost in a restart. Each tick
+ * handles at most one chunk of {@code store.basket.reclaim-chunk-size} baskets in one transaction:
+ * the chunk's stock goes back in one batched release, then its baskets are deleted. Keeping the
+ * chunks small and spaced {@code store.basket.reclaim-interval-ms} apart keeps the job from
+ * competing with customer traffic for row locks.
+ *
+ * <p>A basket changed after it was picked keeps its lines: it is re-checked inside the
+ * transaction, and deleting it fails the optimistic version check if it changes later still, in
+ * which case the chunk is rolled back and retried on the next tick. Each basket is also handed to
+ * {@link BasketStore#forget} inside the transaction, so the write-behind basket cache keeps one it
+ * holds unwritten changes to and never writes a reclaimed one back.
+ */
+@Slf4j
+@Component
+public class BasketReclaimer {
+  private final BasketRepository basketRepository;
+  private final BasketStore basketStore;
+  private final ProductService productService;
+  private final BasketReservations basketReservations;
+  private final TransactionOperations transactionOperations;
+  private final Clock clock;
+  private final Duration abandonedAfter;
+  private final int chunkSize;
+
+  public BasketReclaimer(
+      BasketRepository basketRepository,
+      BasketStore basketStore,
+      ProductService productService,
+      BasketReservations basketReservations,
+      TransactionOperations transactionOperations,
+      Clock clock,
+      @Value("${store.basket.abandoned-after:7d}") Duration abandonedAfter,
+      @Value("${store.basket.reclaim-chunk-size:200}") int chunkSize) {
+    this.basketRepository = basketRepository;
+    this.basketStore = basketStore;
+    this.productService = productService;
+    this.basketReservations = basketReservations;
+    this.transactionOperations = transactionOperations;
+    this.clock = clock;
+    this.abandonedAfter = abandonedAfter;
+    this.chunkSize = chunkSize;
+  }
+
+  /** Reclaims one chunk of abandoned baskets and returns how many were deleted. */
+  @Scheduled(fixedDelayString = "${store.basket.reclaim-interval-ms:1000}")
+  public int reclaim() {
+    Instant cutoff = clock.instant().minus(abandonedAfter);
+    List<Long> basketIds =
+        basketRepository.findIdleBasketIds(cutoff, PageRequest.ofSize(chunkSize));
+    if (basketIds.isEmpty()) {
+      return 0;
+    }
+    List<Basket> reclaimed;
+    try {
+      reclaimed = transactionOperations.execute(status -> reclaim(basketIds, cutoff));
+    } catch (RuntimeException e) {
+      log.warn("Could not reclaim {} abandoned baskets, retrying later", basketIds.size(), e);
+      return 0;
+    }
+    for (Basket basket : reclaimed) {
+      for (BasketItem item : basket.getItems()) {
+        basketReservations.release(basket.getUserId(), item.getProductId(), item.getQuantity());
+      }
+    }
+    log.info("Reclaimed {} abandoned baskets", reclaimed.size());
+    return reclaimed.size();
+  }
+
+  private List<Basket> reclaim(List<Long> basketIds, Instant cutoff) {
+    List<Basket> baskets =
+        basketRepository.findAllById(basketIds).stream()
+            .filter(basket -> basket.getLastModified().isBefore(cutoff))
+            .filter(basketStore::forget)
+            .toList();
+    Map<Long, Integer> heldStock = new HashMap<>();
+    for (Basket basket : baskets) {
+      for (BasketItem item : basket.getItems()) {
+        heldStock.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+      }
+    }
+    productService.releaseStock(heldStock, StockMovement.BASKET_RECLAIMED);
+    basketRepository.deleteAll(baskets);
+    return baskets;
+  }
+}
@@ -0,0 +1,53 @@
+package com.electronics.store.basket;
+
+import com.electronics.store.model.Basket;
+import com.electronics.store.repository.BasketRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Moves baskets still stored as {@code basket_items} rows into the compact column once the
+ * application is up, {@code store.basket.migration-batch-size} baskets per transaction. Baskets
+ * that cannot be migrated now, e.g. because a customer is changing them, move over on their next
+ * save instead.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BasketStorageMigrator {
+  private final BasketRepository basketRepository;
+  private final TransactionOperations transactionOperations;
+  private final int batchSize;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrate() {
+    int migrated = 0;
+    while (true) {
+      List<Long> basketIds =
+          basketRepository.findIdsStoredAsCollection(PageRequest.ofSize(batchSize));
+      if (basketIds.isEmpty()) {
+        break;
+      }
+      try {
+        transactionOperations.executeWithoutResult(status -> migrate(basketIds));
+        migrated += basketIds.size();
+      } catch (RuntimeException e) {
+        log.warn("Stopped migrating baskets; the rest are moved on their next save", e);
+        break;
+      }
+    }
+    if (migrated > 0) {
+      log.info("Migrated {} baskets to compact item storage", migrated);
+    }
+  }
+
+  private void migrate(List<Long> basketIds) {
+    List<Basket> baskets = basketRepository.findAllById(basketIds);
+    baskets.forEach(basket -> basket.storeItems(BasketItemStorage.COMPACT));
+    basketRepository.saveAll(baskets);
+  }
+}
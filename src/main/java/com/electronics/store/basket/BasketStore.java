@@ -0,0 +1,34 @@
+package com.electronics.store.basket;
+
+import com.electronics.store.model.Basket;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Where {@link com.electronics.store.service.BasketService} keeps baskets, selected by {@code
+ * store.basket.store}. Baskets handed out may be saved back once; a basket that was changed by
+ * someone else in the meantime is rejected with an optimistic-locking failure, which callers
+ * retry through {@link com.electronics.store.concurrency.OptimisticRetry}.
+ */
+public interface BasketStore {
+
+  /** Returns the user's basket, creating an empty one on first use. */
+  Basket getOrCreate(String userId);
+
+  Optional<Basket> find(String userId);
+
+  Basket save(Basket basket);
+
+  default void saveAll(Collection<Basket> baskets) {
+    baskets.forEach(this::save);
+  }
+
+  /**
+   * Lets go of a basket that is about to be deleted behind the store's back; called inside the
+   * deleting transaction. Returns false if the store holds changes to the basket that are not
+   * written yet, in which case it must be kept.
+   */
+  default boolean forget(Basket basket) {
+    return true;
+  }
+}
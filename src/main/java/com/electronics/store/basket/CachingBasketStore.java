@@ -0,0 +1,348 @@
+package com.electronics.store.basket;
+
+import com.electronics.store.model.Basket;
+import com.electronics.store.model.BasketItem;
+import com.electronics.store.repository.BasketRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Write-behind basket cache. A basket is loaded (or created) in the database on its first access
+ * and then served from memory; saves only update the cached copy and mark it dirty. Every {@code
+ * store.basket.flush-interval-ms} dirty baskets are written back in batches of {@code
+ * store.basket.flush-batch-size}, one transaction per batch, and again on shutdown.
+ *
+ * <p>Callers always get their own copy. Saving a copy whose version is no longer the cached one
+ * fails with an optimistic-locking failure, and a save inside a transaction is undone if that
+ * transaction rolls back, so {@code BasketService} keeps its retry and all-or-nothing semantics.
+ *
+ * <p>After each flush, baskets idle for longer than {@code store.basket.cache-ttl} are evicted,
+ * then the least recently used ones until at most {@code store.basket.cache-size} remain; dirty
+ * baskets are only evicted once written. A basket the reclaimer deletes is never written back, and
+ * one with unwritten changes is not reclaimed. Changes made after the last flush are lost if the
+ * process dies, and other nodes do not see cached changes, so this store is for single-node
+ * deployments only.
+ */
+@Slf4j
+public class CachingBasketStore implements BasketStore {
+  private final BasketRepository basketRepository;
+  private final BasketItemStorage storage;
+  private final TransactionOperations transactionOperations;
+  private final Clock clock;
+  private final int maxSize;
+  private final long ttlMillis;
+  private final int batchSize;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  // Ids of baskets forgotten for deletion, mapped to whether the delete has committed.
+  private final Map<Long, Boolean> reclaimed = new ConcurrentHashMap<>();
+
+  public CachingBasketStore(
+      BasketRepository basketRepository,
+      BasketItemStorage storage,
+      TransactionOperations transactionOperations,
+      Clock clock,
+      int maxSize,
+      Duration ttl,
+      int batchSize) {
+    this.basketRepository = basketRepository;
+    this.storage = storage;
+    this.transactionOperations = transactionOperations;
+    this.clock = clock;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttl.toMillis();
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public Basket getOrCreate(String userId) {
+    return entry(userId, true).checkout(clock.millis());
+  }
+
+  @Override
+  public Optional<Basket> find(String userId) {
+    Entry entry = entry(userId, false);
+    return entry == null ? Optional.empty() : Optional.of(entry.checkout(clock.millis()));
+  }
+
+  @Override
+  public Basket save(Basket basket) {
+    Entry entry = entries.get(basket.getUserId());
+    if (entry == null) {
+      throw new ObjectOptimisticLockingFailureException(Basket.class, basket.getId());
+    }
+    Basket previous = entry.commit(basket, clock.millis());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      Long savedVersion = basket.getVersion();
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              if (status == STATUS_ROLLED_BACK) {
+                entry.revert(previous, savedVersion);
+              }
+            }
+          });
+    }
+    return basket;
+  }
+
+  @Override
+  public boolean forget(Basket basket) {
+    Long basketId = basket.getId();
+    // Marked before the entry goes, so a concurrent load cannot bring the row back in between.
+    reclaimed.put(basketId, false);
+    Entry entry = entries.get(basket.getUserId());
+    if (entry != null) {
+      if (!entry.retireIfClean()) {
+        reclaimed.remove(basketId);
+        return false;
+      }
+      entries.remove(basket.getUserId(), entry);
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      reclaimed.put(basketId, true);
+      return true;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+              reclaimed.replace(basketId, true);
+            } else {
+              reclaimed.remove(basketId);
+            }
+          }
+        });
+    return true;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  @Scheduled(fixedDelayString = "${store.basket.flush-interval-ms:1000}")
+  public void flush() {
+    writeBack();
+    evict();
+  }
+
+  @PreDestroy
+  public void close() {
+    writeBack();
+  }
+
+  /** Writes every dirty basket to the database; failed batches stay dirty for the next flush. */
+  void writeBack() {
+    // Deletes committed before this pass cannot race it: their entries are retired, rows gone.
+    reclaimed.values().removeIf(Boolean::booleanValue);
+    List<Snapshot> dirty = new ArrayList<>();
+    entries.values().forEach(entry -> entry.snapshotIfDirty(dirty));
+    for (int from = 0; from < dirty.size(); from += batchSize) {
+      List<Snapshot> batch = dirty.subList(from, Math.min(from + batchSize, dirty.size()));
+      try {
+        transactionOperations.executeWithoutResult(status -> write(batch));
+        batch.forEach(Snapshot::markWritten);
+      } catch (RuntimeException e) {
+        log.warn("Could not write back {} baskets, retrying on the next flush", batch.size(), e);
+      }
+    }
+  }
+
+  private void write(List<Snapshot> batch) {
+    Map<Long, Basket> stored =
+        basketRepository
+            .findAllById(batch.stream().map(snapshot -> snapshot.basket.getId()).toList())
+            .stream()
+            .collect(Collectors.toMap(Basket::getId, Function.identity()));
+    List<Snapshot> written = new ArrayList<>(batch.size());
+    List<Basket> rows = new ArrayList<>(batch.size());
+    for (Snapshot snapshot : batch) {
+      Basket row = stored.get(snapshot.basket.getId());
+      if (row == null) {
+        if (reclaimed.containsKey(snapshot.basket.getId())) {
+          // Reclaimed since the snapshot was taken, and its stock already put back.
+          continue;
+        }
+        // Otherwise the transaction that created the row rolled back.
+        row = new Basket(snapshot.basket.getUserId());
+      }
+      row.setItems(snapshot.basket.getItems());
+      row.storeItems(storage);
+      row.setLastModified(snapshot.basket.getLastModified());
+      written.add(snapshot);
+      rows.add(row);
+    }
+    List<Basket> saved = basketRepository.saveAll(rows);
+    for (int i = 0; i < written.size(); i++) {
+      written.get(i).storedId = saved.get(i).getId();
+    }
+  }
+
+  private void evict() {
+    long idleSince = clock.millis() - ttlMillis;
+    entries.forEach(
+        (userId, entry) -> {
+          if (entry.lastAccess < idleSince) {
+            tryEvict(userId, entry);
+          }
+        });
+    int excess = entries.size() - maxSize;
+    if (excess <= 0) {
+      return;
+    }
+    List<Map.Entry<String, Entry>> leastRecentlyUsed =
+        entries.entrySet().stream()
+            .sorted(Comparator.comparingLong(cached -> cached.getValue().lastAccess))
+            .toList();
+    for (Map.Entry<String, Entry> cached : leastRecentlyUsed) {
+      if (excess == 0) {
+        return;
+      }
+      if (tryEvict(cached.getKey(), cached.getValue())) {
+        excess--;
+      }
+    }
+  }
+
+  private boolean tryEvict(String userId, Entry entry) {
+    if (!entry.retireIfClean()) {
+      return false;
+    }
+    entries.remove(userId, entry);
+    return true;
+  }
+
+  private Entry entry(String userId, boolean create) {
+    Entry entry = entries.get(userId);
+    if (entry != null) {
+      return entry;
+    }
+    Optional<Basket> stored = basketRepository.findByUserId(userId);
+    if (stored.isPresent() && reclaimed.containsKey(stored.get().getId())) {
+      // Being deleted by the reclaimer; a retry after it commits starts a new basket.
+      throw new ObjectOptimisticLockingFailureException(Basket.class, stored.get().getId());
+    }
+    if (stored.isEmpty() && !create) {
+      return null;
+    }
+    Basket basket =
+        stored.orElseGet(
+            () -> {
+              Basket created = new Basket(userId);
+              created.setLastModified(clock.instant());
+              return basketRepository.save(created);
+            });
+    Entry loaded = new Entry(copyOf(basket), clock.millis());
+    Entry existing = entries.putIfAbsent(userId, loaded);
+    return existing != null ? existing : loaded;
+  }
+
+  private static Basket copyOf(Basket basket) {
+    List<BasketItem> items = new ArrayList<>(basket.getItems().size());
+    for (BasketItem item : basket.getItems()) {
+      items.add(new BasketItem(item.getProductId(), item.getQuantity()));
+    }
+    Basket copy = new Basket(basket.getId(), basket.getUserId(), items);
+    copy.setVersion(basket.getVersion());
+    copy.setLastModified(basket.getLastModified());
+    return copy;
+  }
+
+  private static final class Entry {
+    private Basket basket;
+    private long revision;
+    private long writtenRevision;
+    private boolean retired;
+    private volatile long lastAccess;
+
+    Entry(Basket basket, long now) {
+      this.basket = basket;
+      this.lastAccess = now;
+    }
+
+    synchronized Basket checkout(long now) {
+      lastAccess = now;
+      return copyOf(basket);
+    }
+
+    /** Replaces the cached basket and returns the one it replaced. */
+    synchronized Basket commit(Basket update, long now) {
+      if (retired || !Objects.equals(update.getVersion(), basket.getVersion())) {
+        throw new ObjectOptimisticLockingFailureException(Basket.class, update.getId());
+      }
+      Basket previous = basket;
+      update.setId(basket.getId());
+      update.setVersion(basket.getVersion() == null ? 0 : basket.getVersion() + 1);
+      update.setLastModified(Instant.ofEpochMilli(now));
+      basket = copyOf(update);
+      revision++;
+      lastAccess = now;
+      return previous;
+    }
+
+    synchronized void revert(Basket previous, Long savedVersion) {
+      // Only undo our own save; a later one already rebuilt on top of it.
+      if (Objects.equals(basket.getVersion(), savedVersion)) {
+        Basket restored = copyOf(previous);
+        // Keep the version moving forward so copies of the rolled-back state are rejected.
+        restored.setVersion(savedVersion + 1);
+        basket = restored;
+        revision++;
+      }
+    }
+
+    synchronized void snapshotIfDirty(List<Snapshot> dirty) {
+      if (!retired && revision != writtenRevision) {
+        dirty.add(new Snapshot(this, copyOf(basket), revision));
+      }
+    }
+
+    synchronized void markWritten(long written, Long storedId) {
+      writtenRevision = Math.max(writtenRevision, written);
+      basket.setId(storedId);
+    }
+
+    synchronized boolean retireIfClean() {
+      if (revision != writtenRevision) {
+        return false;
+      }
+      retired = true;
+      return true;
+    }
+  }
+
+  private static final class Snapshot {
+    private final Entry entry;
+    private final Basket basket;
+    private final long revision;
+    private Long storedId;
+
+    Snapshot(Entry entry, Basket basket, long revision) {
+      this.entry = entry;
+      this.basket = basket;
+      this.revision = revision;
+    }
+
+    void markWritten() {
+      entry.markWritten(revision, storedId);
+    }
+  }
+}
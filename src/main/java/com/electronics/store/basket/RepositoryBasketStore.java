@@ -0,0 +1,47 @@
+package com.electronics.store.basket;
+
+import com.electronics.store.model.Basket;
+import com.electronics.store.repository.BasketRepository;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+
+/** Default store: every read and write goes straight to {@link BasketRepository}. */
+@RequiredArgsConstructor
+public class RepositoryBasketStore implements BasketStore {
+  private final BasketRepository basketRepository;
+  private final BasketItemStorage storage;
+  private final Clock clock;
+
+  @Override
+  public Basket getOrCreate(String userId) {
+    return basketRepository
+        .findByUserId(userId)
+        .orElseGet(() -> save(new Basket(userId)));
+  }
+
+  @Override
+  public Optional<Basket> find(String userId) {
+    return basketRepository.findByUserId(userId);
+  }
+
+  @Override
+  public Basket save(Basket basket) {
+    basket.storeItems(storage);
+    basket.setLastModified(clock.instant());
+    Basket saved = basketRepository.save(basket);
+    if (saved != basket) {
+      // A detached basket (e.g. after a clearing stock UPDATE) is merged into a copy reloaded from
+      // the old row, and its transient lines do not carry over: store them on that copy too.
+      saved.setItems(basket.getItems());
+      saved.storeItems(storage);
+    }
+    return saved;
+  }
+
+  @Override
+  public void saveAll(Collection<Basket> baskets) {
+    baskets.forEach(this::save);
+  }
+}
@@ -0,0 +1,61 @@
+package com.electronics.store.catalog;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Versions of the catalog data a receipt is priced from, so a client can be told its receipt is
+ * unchanged without pricing it again. The product version moves when a product is removed; prices
+ * and names are fixed once a product exists. The deal version is the {@link DealIndex} version,
+ * which moves when a deal is created and again when it expires.
+ *
+ * <p>These versions and the deals of {@link DealIndex} are per process. Versions start from a
+ * random epoch, so tags issued before a restart never match after it. With several nodes, each
+ * node issues its own tags, which never match on another node, and sees deals created on another
+ * node only after its next {@link DealIndex#reload()}, so two nodes can price the same basket
+ * differently until then.
+ */
+@Component
+public class CatalogVersions {
+  private final DealIndex dealIndex;
+  private final long epoch = new SecureRandom().nextLong() >>> 1;
+  private final AtomicLong productVersion = new AtomicLong();
+
+  public CatalogVersions(DealIndex dealIndex) {
+    this.dealIndex = dealIndex;
+  }
+
+  public long productVersion() {
+    return productVersion.get();
+  }
+
+  public long dealVersion() {
+    return dealIndex.version();
+  }
+
+  /**
+   * Combines the epoch and both versions into one token for use in an ETag. Read it before the
+   * data it describes, so a tag can be older than its response but never newer.
+   */
+  public String tag() {
+    return String.format("%x.%d.%d", epoch, productVersion(), dealVersion());
+  }
+
+  /** Moves the product version once the surrounding transaction (if any) has committed. */
+  public void productChanged() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      productVersion.incrementAndGet();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            productVersion.incrementAndGet();
+          }
+        });
+  }
+}
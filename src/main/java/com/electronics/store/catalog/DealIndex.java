@@ -0,0 +1,206 @@
+package com.electronics.store.catalog;
+
+import com.electronics.store.collection.LongLongHashMap;
+import com.electronics.store.model.Deal;
+import com.electronics.store.repository.DealRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The best active deal of every product, held in memory so pricing never queries deals. Readers
+ * get an immutable snapshot keyed by primitive product id: a lookup takes no lock and allocates
+ * nothing. Writers, which are rare, build and publish a new snapshot.
+ *
+ * <p>A product may have any number of deals, overlapping or scheduled to start later. Of those that
+ * have started and not expired, the one that started last wins, and the newest deal breaks ties,
+ * so a new promotion overrides a running one until it ends.
+ *
+ * <p>Time runs on a coarse clock. Every {@code store.deals.clock-tick-ms} the starts and expiries
+ * that have passed are taken off a min-heap and their products resolved again, so a deal may start
+ * or stay active up to one tick late. Each published snapshot gets a new {@link #version()}. The
+ * index is per process: deals created on other nodes show up once it is reloaded from the
+ * database, every {@code store.deals.reload-ms}.
+ */
+@Component
+public class DealIndex {
+  private static final long NEVER = Long.MAX_VALUE;
+  private static final Comparator<Entry> BEST =
+      Comparator.comparingLong(Entry::startsAt).thenComparingLong(entry -> entry.deal().getId());
+
+  private final DealRepository dealRepository;
+  private final Clock clock;
+  private volatile Snapshot snapshot = new Snapshot(0, new HashMap<>());
+  // Writer-side state, guarded by this.
+  private final Map<Long, List<Entry>> unexpired = new HashMap<>();
+  private final Map<Long, Deal> active = new HashMap<>();
+  private final PriorityQueue<Change> changes =
+      new PriorityQueue<>(Comparator.comparingLong(Change::atMillis));
+  private long now;
+
+  public DealIndex(DealRepository dealRepository, Clock clock) {
+    this.dealRepository = dealRepository;
+    this.clock = clock;
+  }
+
+  /**
+   * Replaces the index with the deals in the database that have not expired, and publishes a new
+   * snapshot only if that changed an active deal.
+   */
+  @PostConstruct
+  @Scheduled(
+      fixedDelayString = "${store.deals.reload-ms:60000}",
+      initialDelayString = "${store.deals.reload-ms:60000}")
+  public synchronized void reload() {
+    Map<Long, Deal> before = new HashMap<>(active);
+    now = clock.millis();
+    unexpired.clear();
+    active.clear();
+    changes.clear();
+    LocalDateTime localNow = LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault());
+    dealRepository.findUnexpired(localNow).forEach(this::index);
+    List.copyOf(unexpired.keySet()).forEach(this::resolve);
+    if (!active.equals(before)) {
+      publish();
+    }
+  }
+
+  /** The best active deal of {@code productId}, or null if it has none. */
+  public Deal find(long productId) {
+    return snapshot.find(productId);
+  }
+
+  /** Moves whenever the active deal of any product changes. */
+  public long version() {
+    return snapshot.version;
+  }
+
+  /** Indexes a new deal once the surrounding transaction (if any) has committed. */
+  public void add(Deal deal) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      addNow(deal);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            addNow(deal);
+          }
+        });
+  }
+
+  /** Advances the coarse clock and resolves the products whose deals started or expired. */
+  @Scheduled(fixedDelayString = "${store.deals.clock-tick-ms:1000}")
+  public synchronized void tick() {
+    now = clock.millis();
+    boolean changed = false;
+    Change next;
+    while ((next = changes.peek()) != null && next.atMillis() <= now) {
+      changes.poll();
+      changed |= resolve(next.productId());
+    }
+    if (changed) {
+      publish();
+    }
+  }
+
+  private synchronized void addNow(Deal deal) {
+    if (index(deal) && resolve(deal.getProductId())) {
+      publish();
+    }
+  }
+
+  private boolean index(Deal deal) {
+    long expiresAt = toMillis(deal.getExpirationDate(), NEVER);
+    if (expiresAt <= now) {
+      return false;
+    }
+    List<Entry> entries =
+        unexpired.computeIfAbsent(deal.getProductId(), productId -> new ArrayList<>());
+    // A deal created here may already have been picked up by a reload racing its commit.
+    if (entries.stream().anyMatch(entry -> entry.deal().getId().equals(deal.getId()))) {
+      return false;
+    }
+    long startsAt = toMillis(deal.getStartDate(), Long.MIN_VALUE);
+    Deal copy =
+        new Deal(
+            deal.getId(),
+            deal.getProductId(),
+            deal.getDealType(),
+            deal.getStartDate(),
+            deal.getExpirationDate());
+    entries.add(new Entry(copy, startsAt, expiresAt));
+    if (startsAt > now) {
+      changes.add(new Change(startsAt, deal.getProductId()));
+    }
+    if (expiresAt != NEVER) {
+      changes.add(new Change(expiresAt, deal.getProductId()));
+    }
+    return true;
+  }
+
+  /** Drops the product's expired deals and picks its best active one; true if that changed. */
+  private boolean resolve(long productId) {
+    List<Entry> entries = unexpired.get(productId);
+    Deal best = null;
+    if (entries != null) {
+      entries.removeIf(entry -> entry.expiresAt() <= now);
+      best =
+          entries.stream()
+              .filter(entry -> entry.startsAt() <= now)
+              .max(BEST)
+              .map(Entry::deal)
+              .orElse(null);
+      if (entries.isEmpty()) {
+        unexpired.remove(productId);
+      }
+    }
+    Deal previous = best == null ? active.remove(productId) : active.put(productId, best);
+    return previous != best;
+  }
+
+  private void publish() {
+    snapshot = new Snapshot(snapshot.version + 1, active);
+  }
+
+  private static long toMillis(LocalDateTime time, long ifAbsent) {
+    // Deal.isActive compares against local time, so deal dates are local times too.
+    return time == null ? ifAbsent : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private record Entry(Deal deal, long startsAt, long expiresAt) {}
+
+  private record Change(long atMillis, long productId) {}
+
+  private static final class Snapshot {
+    private final long version;
+    private final LongLongHashMap positions;
+    private final Deal[] deals;
+
+    Snapshot(long version, Map<Long, Deal> active) {
+      this.version = version;
+      this.positions = new LongLongHashMap(active.size());
+      this.deals = active.values().toArray(new Deal[0]);
+      for (int position = 0; position < deals.length; position++) {
+        positions.put(deals[position].getProductId(), position, -1);
+      }
+    }
+
+    Deal find(long productId) {
+      int position = (int) positions.get(productId, -1);
+      return position < 0 ? null : deals[position];
+    }
+  }
+}
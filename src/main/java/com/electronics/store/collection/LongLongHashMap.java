@@ -0,0 +1,163 @@
+package com.electronics.store.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code long} with linear probing. Keys and values
+ * are stored in flat primitive arrays, so lookups and updates never box or allocate. Not
+ * thread-safe.
+ *
+ * <p>{@link Long#MIN_VALUE} marks empty slots and cannot be used as a key.
+ */
+public class LongLongHashMap {
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final int MIN_CAPACITY = 8;
+
+  private long[] keys;
+  private long[] values;
+  private int mask;
+  private int size;
+
+  public LongLongHashMap() {
+    this(MIN_CAPACITY);
+  }
+
+  public LongLongHashMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(long key) {
+    return keys[slotOf(key)] != EMPTY;
+  }
+
+  public long get(long key, long defaultValue) {
+    int slot = slotOf(key);
+    return keys[slot] == EMPTY ? defaultValue : values[slot];
+  }
+
+  /** Returns the previous value, or {@code defaultValue} if the key was absent. */
+  public long put(long key, long value, long defaultValue) {
+    int slot = slotOf(key);
+    if (keys[slot] != EMPTY) {
+      long previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(slot, key, value);
+    return defaultValue;
+  }
+
+  /** Adds {@code delta} to the value of {@code key}, treating an absent key as zero. */
+  public long addTo(long key, long delta) {
+    int slot = slotOf(key);
+    if (keys[slot] != EMPTY) {
+      return values[slot] += delta;
+    }
+    insert(slot, key, delta);
+    return delta;
+  }
+
+  /** Returns the removed value, or {@code defaultValue} if the key was absent. */
+  public long remove(long key, long defaultValue) {
+    int slot = slotOf(key);
+    if (keys[slot] == EMPTY) {
+      return defaultValue;
+    }
+    long removed = values[slot];
+    // Backward-shift deletion: pull later entries of the same probe run into the gap so that
+    // lookups never need tombstones.
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[gap] = EMPTY;
+    size--;
+    return removed;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  }
+
+  public void forEach(EntryConsumer consumer) {
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != EMPTY) {
+        consumer.accept(keys[slot], values[slot]);
+      }
+    }
+  }
+
+  private int slotOf(long key) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("Long.MIN_VALUE cannot be used as a key");
+    }
+    int slot = hash(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insert(int slot, long key, long value) {
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > (mask + 1) / 4 * 3) {
+      rehash();
+    }
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = hash(oldKeys[i]) & mask;
+        while (keys[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    mask = capacity - 1;
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int needed = Math.max(MIN_CAPACITY, (int) Math.min(1L << 30, (long) expectedSize * 4 / 3 + 1));
+    return Integer.highestOneBit(needed - 1) << 1;
+  }
+
+  private static int hash(long key) {
+    // Fibonacci hashing: sequential ids spread over the whole table.
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  @FunctionalInterface
+  public interface EntryConsumer {
+    void accept(long key, long value);
+  }
+}
@@ -0,0 +1,77 @@
+package com.electronics.store.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Re-runs an action that lost an optimistic-locking race, with exponential backoff and full
+ * jitter between attempts. Each attempt must start its own transaction: when the caller is already
+ * inside one, that transaction is doomed by the conflict, so the action runs exactly once.
+ *
+ * <p>Publishes {@code store.optimistic.attempts}, {@code store.optimistic.conflicts} and
+ * {@code store.optimistic.exhausted}, tagged by operation.
+ */
+@Slf4j
+public class OptimisticRetry {
+  private final MeterRegistry meterRegistry;
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+
+  public OptimisticRetry(
+      MeterRegistry meterRegistry, int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("At least one attempt is required: " + maxAttempts);
+    }
+    this.meterRegistry = meterRegistry;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffNanos = initialBackoff.toNanos();
+    this.maxBackoffNanos = maxBackoff.toNanos();
+  }
+
+  public <T> T execute(String operation, Supplier<T> action) {
+    int attempts =
+        TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+    for (int attempt = 1; ; attempt++) {
+      meterRegistry.counter("store.optimistic.attempts", "operation", operation).increment();
+      try {
+        return action.get();
+      } catch (OptimisticLockingFailureException e) {
+        meterRegistry.counter("store.optimistic.conflicts", "operation", operation).increment();
+        if (attempt >= attempts) {
+          meterRegistry.counter("store.optimistic.exhausted", "operation", operation).increment();
+          log.warn("{} still conflicting after {} attempts", operation, attempt);
+          throw e;
+        }
+        backOff(attempt, e);
+      }
+    }
+  }
+
+  public void execute(String operation, Runnable action) {
+    execute(
+        operation,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+    long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+    if (ceiling <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1)).toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw conflict;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.electronics.store.concurrency;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs each user's actions one at a time, in arrival order, while different users run fully in
+ * parallel. Every user with work in flight has a mailbox: the first action runs straight away and
+ * later ones queue up behind it, each handed the turn when its predecessor finishes. Mailboxes
+ * exist only while they hold work, so memory follows the number of active users.
+ *
+ * <p>An action runs on the thread that submitted it. Waiting callers are blocked either way, and
+ * this keeps request-bound state such as the security context or a surrounding transaction
+ * attached to the action it belongs to.
+ */
+public class UserMailboxes {
+  private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+  public <T> T run(String userId, Supplier<T> action) {
+    CompletableFuture<Void> turn = new CompletableFuture<>();
+    Mailbox mailbox =
+        mailboxes.compute(
+            userId,
+            (ignored, existing) -> {
+              Mailbox result = existing != null ? existing : new Mailbox();
+              result.enqueue(turn);
+              return result;
+            });
+    try {
+      turn.join();
+      return action.get();
+    } finally {
+      mailboxes.compute(userId, (ignored, current) -> mailbox.passTurn() ? mailbox : null);
+    }
+  }
+
+  public void run(String userId, Runnable action) {
+    run(
+        userId,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  /** Number of users with work in flight. */
+  public int size() {
+    return mailboxes.size();
+  }
+
+  /** Only touched inside {@code compute} for its user, which serializes access to it. */
+  private static final class Mailbox {
+    private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private boolean busy;
+
+    void enqueue(CompletableFuture<Void> turn) {
+      if (busy) {
+        waiting.add(turn);
+      } else {
+        busy = true;
+        turn.complete(null);
+      }
+    }
+
+    /** Hands the turn to the next action; returns false if none is waiting. */
+    boolean passTurn() {
+      CompletableFuture<Void> next = waiting.poll();
+      if (next == null) {
+        busy = false;
+        return false;
+      }
+      next.complete(null);
+      return true;
+    }
+  }
+}
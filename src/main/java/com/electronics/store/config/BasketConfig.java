@@ -0,0 +1,62 @@
+package com.electronics.store.config;
+
+import com.electronics.store.basket.BasketItemStorage;
+import com.electronics.store.basket.BasketStorageMigrator;
+import com.electronics.store.basket.BasketStore;
+import com.electronics.store.basket.CachingBasketStore;
+import com.electronics.store.basket.RepositoryBasketStore;
+import com.electronics.store.repository.BasketRepository;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class BasketConfig {
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "store.basket.store",
+      havingValue = "database",
+      matchIfMissing = true)
+  public BasketStore repositoryBasketStore(
+      BasketRepository basketRepository,
+      @Value("${store.basket.storage:collection}") BasketItemStorage storage,
+      Clock clock) {
+    return new RepositoryBasketStore(basketRepository, storage, clock);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "store.basket.store", havingValue = "memory")
+  public BasketStore cachingBasketStore(
+      BasketRepository basketRepository,
+      @Value("${store.basket.storage:collection}") BasketItemStorage storage,
+      PlatformTransactionManager transactionManager,
+      Clock clock,
+      @Value("${store.basket.cache-size:100000}") int maxSize,
+      @Value("${store.basket.cache-ttl:30m}") Duration ttl,
+      @Value("${store.basket.flush-batch-size:500}") int batchSize) {
+    return new CachingBasketStore(
+        basketRepository,
+        storage,
+        new TransactionTemplate(transactionManager),
+        clock,
+        maxSize,
+        ttl,
+        batchSize);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "store.basket.storage", havingValue = "compact")
+  public BasketStorageMigrator basketStorageMigrator(
+      BasketRepository basketRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${store.basket.migration-batch-size:500}") int batchSize) {
+    return new BasketStorageMigrator(
+        basketRepository, new TransactionTemplate(transactionManager), batchSize);
+  }
+}
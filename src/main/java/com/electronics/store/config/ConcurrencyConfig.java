@@ -0,0 +1,32 @@
+package com.electronics.store.config;
+
+import com.electronics.store.concurrency.OptimisticRetry;
+import com.electronics.store.concurrency.UserMailboxes;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConcurrencyConfig {
+
+  @Bean
+  public OptimisticRetry optimisticRetry(
+      MeterRegistry meterRegistry,
+      @Value("${store.retry.max-attempts:5}") int maxAttempts,
+      @Value("${store.retry.initial-backoff:5ms}") Duration initialBackoff,
+      @Value("${store.retry.max-backoff:200ms}") Duration maxBackoff) {
+    return new OptimisticRetry(meterRegistry, maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  @Bean
+  public UserMailboxes basketMailboxes(MeterRegistry meterRegistry) {
+    UserMailboxes mailboxes = new UserMailboxes();
+    Gauge.builder("store.basket.mailboxes", mailboxes, UserMailboxes::size)
+        .description("Users with basket operations running or queued")
+        .register(meterRegistry);
+    return mailboxes;
+  }
+}
@@ -0,0 +1,67 @@
+package com.electronics.store.config;
+
+import com.electronics.store.inventory.DatabaseInventoryEngine;
+import com.electronics.store.inventory.InMemoryInventoryEngine;
+import com.electronics.store.inventory.InventoryDeltaJournal;
+import com.electronics.store.inventory.InventoryEngine;
+import com.electronics.store.inventory.StockBuckets;
+import com.electronics.store.inventory.StockDeltaWriter;
+import com.electronics.store.repository.ProductRepository;
+import com.electronics.store.repository.StockBucketRepository;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class InventoryConfig {
+
+  @Bean
+  public StockDeltaWriter stockDeltaWriter(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      EntityManager entityManager,
+      @Value("${store.inventory.flush-batch-size:500}") int batchSize) {
+    return new StockDeltaWriter(
+        jdbcTemplate, new TransactionTemplate(transactionManager), entityManager, batchSize);
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "store.inventory.engine",
+      havingValue = "database",
+      matchIfMissing = true)
+  public StockBuckets stockBuckets(
+      StockBucketRepository stockBucketRepository, ProductRepository productRepository) {
+    return new StockBuckets(stockBucketRepository, productRepository);
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "store.inventory.engine",
+      havingValue = "database",
+      matchIfMissing = true)
+  public InventoryEngine databaseInventoryEngine(
+      ProductRepository productRepository,
+      StockDeltaWriter stockDeltaWriter,
+      StockBuckets stockBuckets) {
+    return new DatabaseInventoryEngine(productRepository, stockDeltaWriter, stockBuckets);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "store.inventory.engine", havingValue = "memory")
+  public InventoryEngine inMemoryInventoryEngine(
+      ProductRepository productRepository,
+      StockDeltaWriter stockDeltaWriter,
+      @Value("${store.inventory.journal-directory}") Path journalDirectory)
+      throws IOException {
+    return new InMemoryInventoryEngine(
+        productRepository, stockDeltaWriter, new InventoryDeltaJournal(journalDirectory));
+  }
+}
@@ -0,0 +1,48 @@
+package com.electronics.store.config;
+
+import com.electronics.store.inventory.InventoryEngine;
+import com.electronics.store.ledger.MappedStockLedger;
+import com.electronics.store.ledger.StockLedger;
+import com.electronics.store.ledger.StockLedgerReplayer;
+import com.electronics.store.repository.ProductRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LedgerConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "store.ledger.enabled", havingValue = "true")
+  public MappedStockLedger mappedStockLedger(
+      @Value("${store.ledger.directory}") Path directory,
+      @Value("${store.ledger.segment-size:16777216}") int segmentSize,
+      Clock clock)
+      throws IOException {
+    return new MappedStockLedger(directory, segmentSize, clock);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "store.ledger.enabled", havingValue = "true")
+  public StockLedgerReplayer stockLedgerReplayer(
+      MappedStockLedger mappedStockLedger,
+      InventoryEngine inventoryEngine,
+      ProductRepository productRepository,
+      @Value("${store.inventory.adjustment-chunk-size:1000}") int chunkSize) {
+    return new StockLedgerReplayer(
+        mappedStockLedger, inventoryEngine, productRepository, chunkSize);
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "store.ledger.enabled",
+      havingValue = "false",
+      matchIfMissing = true)
+  public StockLedger disabledStockLedger() {
+    return StockLedger.DISABLED;
+  }
+}
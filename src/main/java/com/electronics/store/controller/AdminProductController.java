@@ -1,17 +1,25 @@
 package com.electronics.store.controller;
 
+import com.electronics.store.dto.BulkStockAdjustmentResponse;
 import com.electronics.store.dto.ProductCreateRequest;
 import com.electronics.store.dto.ProductResponse;
+import com.electronics.store.inventory.StockBuckets;
 import com.electronics.store.mapper.ProductMapper;
 import com.electronics.store.mapper.ProductResponseMapper;
 import com.electronics.store.model.Product;
 import com.electronics.store.service.ProductService;
+import com.electronics.store.service.StockAdjustmentService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -19,6 +27,7 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -31,6 +40,7 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 public class AdminProductController {
   private final ProductService productService;
+  private final StockAdjustmentService stockAdjustmentService;
 
   private final ProductResponseMapper productResponseMapper;
   private final ProductMapper productMapper;
@@ -59,6 +69,19 @@ public class AdminProductController {
     return new ResponseEntity<>(createdProductResponse, HttpStatus.CREATED);
   }
 
+  @PostMapping(value = "/stock", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BulkStockAdjustmentResponse> adjustStock(InputStream body)
+      throws IOException {
+    return new ResponseEntity<>(stockAdjustmentService.adjust(body), HttpStatus.OK);
+  }
+
+  @PutMapping("/{productId}/stock-buckets")
+  public ResponseEntity<ProductResponse> splitStock(
+      @PathVariable Long productId, @RequestParam @Min(1) @Max(StockBuckets.MAX_BUCKETS) int buckets) {
+    Product product = productService.splitStock(productId, buckets);
+    return new ResponseEntity<>(productResponseMapper.toDto(product), HttpStatus.OK);
+  }
+
   @DeleteMapping("/{productId}")
   public ResponseEntity<Void> deleteProduct(@PathVariable Long productId) {
     productService.removeProduct(productId);
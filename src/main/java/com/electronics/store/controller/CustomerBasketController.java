@@ -1,20 +1,38 @@
 package com.electronics.store.controller;
 
+import com.electronics.store.catalog.CatalogVersions;
+import com.electronics.store.dto.BasketBatchRequest;
 import com.electronics.store.dto.BasketUpdateRequest;
+import com.electronics.store.dto.ReceiptSummary;
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.idempotency.IdempotencyStore;
 import com.electronics.store.model.Basket;
 import com.electronics.store.model.Receipt;
+import com.electronics.store.model.ReceiptItem;
+import com.electronics.store.pricing.ReceiptPricer;
 import com.electronics.store.service.BasketService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/customer/basket")
@@ -23,26 +41,137 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 public class CustomerBasketController {
   private final BasketService basketService;
+  private final IdempotencyStore idempotencyStore;
+  private final CatalogVersions catalogVersions;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The current basket. Its strong ETag is derived from the basket version, so a poll with a
+   * matching {@code If-None-Match} gets 304 Not Modified.
+   */
+  @GetMapping
+  public ResponseEntity<Basket> getBasket(WebRequest webRequest) {
+    Basket basket = basketService.getOrCreateBasket();
+    String eTag = basketTag(basket);
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).body(basket);
+  }
 
   @PostMapping("/add")
   public ResponseEntity<Basket> addProductToBasket(
-      @Valid @RequestBody BasketUpdateRequest request) {
-    Basket basket = basketService.addProductToBasket(request.getProductId(), request.getQuantity());
-    return new ResponseEntity<>(basket, HttpStatus.OK);
+      @Valid @RequestBody BasketUpdateRequest request,
+      @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+      Principal principal) {
+    return idempotencyStore.execute(
+        principal.getName(),
+        idempotencyKey,
+        "basket.add",
+        request,
+        () -> {
+          Basket basket =
+              basketService.addProductToBasket(request.getProductId(), request.getQuantity());
+          return new ResponseEntity<>(basket, HttpStatus.OK);
+        });
   }
 
   @PostMapping("/remove")
   public ResponseEntity<Basket> removeProductFromBasket(
-      @Valid @RequestBody BasketUpdateRequest request) {
-    Basket basket =
-        basketService.removeProductFromBasket(request.getProductId(), request.getQuantity());
-    return new ResponseEntity<>(basket, HttpStatus.OK);
+      @Valid @RequestBody BasketUpdateRequest request,
+      @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+      Principal principal) {
+    return idempotencyStore.execute(
+        principal.getName(),
+        idempotencyKey,
+        "basket.remove",
+        request,
+        () -> {
+          Basket basket =
+              basketService.removeProductFromBasket(request.getProductId(), request.getQuantity());
+          return new ResponseEntity<>(basket, HttpStatus.OK);
+        });
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<Basket> updateBasket(
+      @Valid @RequestBody BasketBatchRequest request,
+      @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+      Principal principal) {
+    return idempotencyStore.execute(
+        principal.getName(),
+        idempotencyKey,
+        "basket.batch",
+        request,
+        () -> {
+          Basket basket = basketService.updateBasket(request.getOperations());
+          return new ResponseEntity<>(basket, HttpStatus.OK);
+        });
+  }
+
+  /**
+   * The priced basket. Its strong ETag combines the basket version with the catalog versions, so
+   * a poll with a matching {@code If-None-Match} gets 304 without loading any product or deal.
+   */
   @GetMapping("/receipt")
-  public ResponseEntity<Receipt> getReceipt() {
-    //    Basket basket =
-    Receipt receipt = basketService.calculateReceipt();
-    return new ResponseEntity<>(receipt, HttpStatus.OK);
+  public ResponseEntity<Receipt> getReceipt(WebRequest webRequest) {
+    String catalogTag = catalogVersions.tag();
+    Basket basket = basketService.getOrCreateBasket();
+    String eTag = basketTag(basket) + "-" + catalogTag;
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    Receipt receipt = basketService.calculateReceipt(basket);
+    return ResponseEntity.ok().eTag(eTag).body(receipt);
+  }
+
+  /**
+   * The priced basket as NDJSON, for baskets too large to price into one response: one {@link
+   * ReceiptItem} per line, written as soon as its chunk is priced, then a {@link ReceiptSummary}
+   * line with the deals applied and the total. If a product disappears once lines have been sent,
+   * the body ends with an {@code {"error": ...}} line instead of the summary.
+   */
+  @GetMapping(value = "/receipt/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void streamReceipt(HttpServletResponse response) throws IOException {
+    Basket basket = basketService.getOrCreateBasket();
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    OutputStream outputStream = response.getOutputStream();
+    ReceiptPricer.Totals totals;
+    try {
+      totals = basketService.streamReceipt(basket, chunk -> writeLines(outputStream, chunk));
+    } catch (ProductNotFoundException e) {
+      if (!response.isCommitted()) {
+        // Nothing sent yet: drop the NDJSON content type so the error renders as a JSON 404.
+        response.reset();
+        throw e;
+      }
+      // Removed after the up-front check, with lines already sent: report it in the body instead.
+      writeLines(outputStream, List.of(Map.of("error", e.getMessage())));
+      return;
+    }
+    ReceiptSummary summary =
+        ReceiptSummary.builder()
+            .dealsApplied(totals.dealsApplied())
+            .totalPrice(totals.totalPrice())
+            .build();
+    writeLines(outputStream, List.of(summary));
+  }
+
+  private void writeLines(OutputStream outputStream, List<?> values) {
+    try {
+      for (Object value : values) {
+        outputStream.write(objectMapper.writeValueAsBytes(value));
+        outputStream.write('\n');
+      }
+      // Each chunk goes out at once, so the first lines arrive long before the last are priced.
+      outputStream.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // The id keeps tags apart when a reclaimed basket is recreated and its version starts over.
+  private static String basketTag(Basket basket) {
+    return String.format("%s.%s", basket.getId(), basket.getVersion());
   }
 }
@@ -1,24 +1,35 @@
 package com.electronics.store.controller;
 
+import com.electronics.store.availability.StockAvailabilityFeed;
 import com.electronics.store.dto.ProductResponse;
+import com.electronics.store.dto.QuoteRequest;
+import com.electronics.store.exception.MalformedRequestException;
 import com.electronics.store.mapper.ProductMapper;
 import com.electronics.store.mapper.ProductResponseMapper;
 import com.electronics.store.model.Product;
 import com.electronics.store.model.ProductCategory;
+import com.electronics.store.model.Receipt;
 import com.electronics.store.service.ProductService;
+import com.electronics.store.service.QuoteService;
+import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/customer/products")
@@ -26,10 +37,14 @@ import org.springframework.web.bind.annotation.RestController;
 @PreAuthorize("permitAll()")
 @Validated
 public class CustomerProductController {
+  private static final int MAX_QUOTE_ITEMS = 10_000;
+
   private final ProductService productService;
 
   private final ProductResponseMapper productResponseMapper;
   private final ProductMapper productMapper;
+  private final StockAvailabilityFeed stockAvailabilityFeed;
+  private final QuoteService quoteService;
 
   @GetMapping
   public ResponseEntity<Page<ProductResponse>> getFilteredProducts(
@@ -45,4 +60,32 @@ public class CustomerProductController {
     Page<ProductResponse> productResponses = products.map(productResponseMapper::toDto);
     return new ResponseEntity<>(productResponses, HttpStatus.OK);
   }
+
+  /**
+   * Server-sent stream of stock changes for the given products and categories, or for every
+   * product when neither is given. Replaces polling {@code ?available=true}.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamStock(
+      @RequestParam(required = false) List<Long> productIds,
+      @RequestParam(required = false) List<ProductCategory> categories) {
+    return stockAvailabilityFeed.subscribe(
+        productIds != null ? productIds : List.of(), categories != null ? categories : List.of());
+  }
+
+  /**
+   * Prices hypothetical baskets without storing them or touching stock; open to anyone, for
+   * marketing pages and partners. Receipts come back in request order. At most {@value
+   * #MAX_QUOTE_ITEMS} items can be quoted per request, across all baskets.
+   */
+  @PostMapping("/quotes")
+  public ResponseEntity<List<Receipt>> quote(@Valid @RequestBody QuoteRequest quoteRequest) {
+    int items =
+        quoteRequest.getBaskets().stream().mapToInt(basket -> basket.getItems().size()).sum();
+    if (items > MAX_QUOTE_ITEMS) {
+      throw new MalformedRequestException(
+          String.format("At most %s items can be quoted at once: %s", MAX_QUOTE_ITEMS, items));
+    }
+    return new ResponseEntity<>(quoteService.quote(quoteRequest.getBaskets()), HttpStatus.OK);
+  }
 }
@@ -0,0 +1,20 @@
+package com.electronics.store.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketBatchRequest {
+  @NotEmpty(message = "At least one basket operation must be given")
+  @Size(max = 1000, message = "At most 1000 basket operations can be applied at once")
+  private List<@Valid BasketOperation> operations;
+}
@@ -0,0 +1,6 @@
+package com.electronics.store.dto;
+
+public enum BasketOperationType {
+  ADD,
+  REMOVE
+}
@@ -0,0 +1,13 @@
+package com.electronics.store.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class BulkStockAdjustmentResponse {
+  int received;
+  int applied;
+  List<StockAdjustmentFailure> failures;
+}
@@ -11,6 +11,7 @@ public class DealResponse {
   Long id;
   Long productId;
   DealType dealType;
+  LocalDateTime startDate;
   LocalDateTime expirationDate;
   boolean active;
 }
@@ -0,0 +1,21 @@
+package com.electronics.store.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A hypothetical basket to price; it is never stored. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteBasket {
+  @NotEmpty(message = "A basket must contain at least one item")
+  @Size(max = 1000, message = "At most 1000 items can be quoted in one basket")
+  private List<@Valid QuoteItem> items;
+}
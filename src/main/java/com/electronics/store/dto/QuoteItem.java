@@ -0,0 +1,20 @@
+package com.electronics.store.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteItem {
+  @NotNull(message = "Product ID must be specified")
+  private Long productId;
+
+  @Min(value = 1, message = "Quantity must be at least 1")
+  private int quantity;
+}
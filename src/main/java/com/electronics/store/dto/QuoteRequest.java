@@ -0,0 +1,20 @@
+package com.electronics.store.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequest {
+  @NotEmpty(message = "At least one basket must be given")
+  @Size(max = 100, message = "At most 100 baskets can be quoted at once")
+  private List<@Valid QuoteBasket> baskets;
+}
@@ -0,0 +1,14 @@
+package com.electronics.store.dto;
+
+import com.electronics.store.model.Money;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+/** The last line of a streamed receipt, written once every item line has been sent. */
+@Value
+@Builder
+public class ReceiptSummary {
+  List<String> dealsApplied;
+  Money totalPrice;
+}
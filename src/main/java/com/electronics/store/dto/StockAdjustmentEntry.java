@@ -0,0 +1,11 @@
+package com.electronics.store.dto;
+
+import lombok.Data;
+
+/** One bulk adjustment row: exactly one of {@code delta} or {@code stock} must be set. */
+@Data
+public class StockAdjustmentEntry {
+  private Long productId;
+  private Long delta;
+  private Long stock;
+}
@@ -0,0 +1,12 @@
+package com.electronics.store.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class StockAdjustmentFailure {
+  int index;
+  Long productId;
+  String reason;
+}
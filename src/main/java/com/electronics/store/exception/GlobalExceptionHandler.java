@@ -1,5 +1,6 @@
 package com.electronics.store.exception;
 
+import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -29,6 +30,52 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
   }
 
+  @ExceptionHandler(MalformedRequestException.class)
+  public ResponseEntity<Object> handleMalformedRequestException(
+      MalformedRequestException ex, WebRequest request) {
+    Map<String, Object> body =
+        createErrorBody(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), request);
+    return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<Object> handleIdempotencyKeyReusedException(
+      IdempotencyKeyReusedException ex, WebRequest request) {
+    Map<String, Object> body =
+        createErrorBody(
+            HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity", ex.getMessage(), request);
+    return new ResponseEntity<>(body, HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @ExceptionHandler(InventoryModeException.class)
+  public ResponseEntity<Object> handleInventoryModeException(
+      InventoryModeException ex, WebRequest request) {
+    Map<String, Object> body =
+        createErrorBody(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), request);
+    return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(TooManySubscribersException.class)
+  public ResponseEntity<Object> handleTooManySubscribersException(
+      TooManySubscribersException ex, WebRequest request) {
+    Map<String, Object> body =
+        createErrorBody(
+            HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), request);
+    return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(ConstraintViolationException.class)
+  public ResponseEntity<Object> handleConstraintViolationException(
+      ConstraintViolationException ex, WebRequest request) {
+    String errors =
+        ex.getConstraintViolations().stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .collect(Collectors.joining("; "));
+    Map<String, Object> body =
+        createErrorBody(HttpStatus.BAD_REQUEST, "Validation Error", errors, request);
+    return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+  }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
 
@@ -0,0 +1,11 @@
+package com.electronics.store.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends RuntimeException {
+  public IdempotencyKeyReusedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,11 @@
+package com.electronics.store.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class InventoryModeException extends RuntimeException {
+  public InventoryModeException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,186 @@
+package com.electronics.store.idempotency;
+
+import com.electronics.store.exception.IdempotencyKeyReusedException;
+import com.electronics.store.exception.MalformedRequestException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the responses of mutating requests by user and {@code Idempotency-Key}, so a client
+ * retrying after a timeout gets the original response instead of applying the change twice. A
+ * retry that arrives while the original is still running waits for its result.
+ *
+ * <p>Only successful responses are kept: a request that failed can be retried with the same key.
+ * Responses are kept for {@code store.idempotency.ttl}, and only the newest {@code
+ * store.idempotency.max-entries} of them. Eviction runs on the sweep schedule, and on the request
+ * path only once the store is over its size limit; neither takes a lock.
+ */
+@Component
+public class IdempotencyStore {
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final Clock clock;
+  private final long ttlMillis;
+  private final int maxEntries;
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  // Entries in creation order, which is also expiry order. Failed entries stay queued until
+  // eviction reaches them, so failing a request does not scan the queue.
+  private final Queue<Entry> creationOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  public IdempotencyStore(
+      Clock clock,
+      @Value("${store.idempotency.ttl:24h}") Duration ttl,
+      @Value("${store.idempotency.max-entries:100000}") int maxEntries) {
+    this.clock = clock;
+    this.ttlMillis = ttl.toMillis();
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Runs {@code action} once per user and key. Without a key, it simply runs {@code action}.
+   *
+   * @param operation names the endpoint; a key may not be reused for another operation
+   * @param request the request body; a key may not be reused for a different body
+   * @throws IdempotencyKeyReusedException if the key was used for a different request
+   */
+  public <T> ResponseEntity<T> execute(
+      String userId,
+      String idempotencyKey,
+      String operation,
+      Object request,
+      Supplier<ResponseEntity<T>> action) {
+    if (idempotencyKey == null) {
+      return action.get();
+    }
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new MalformedRequestException(
+          String.format("%s must be 1 to %s characters long", HEADER, MAX_KEY_LENGTH));
+    }
+    Key key = new Key(userId, idempotencyKey);
+    Entry entry = new Entry(key, operation, request, clock.millis());
+    Entry existing;
+    while ((existing = entries.putIfAbsent(key, entry)) != null) {
+      if (!existing.isExpired(clock.millis(), ttlMillis)) {
+        return replay(existing, operation, request);
+      }
+      entries.remove(key, existing);
+    }
+    creationOrder.add(entry);
+    if (queued.incrementAndGet() > maxEntries) {
+      evict();
+    }
+
+    try {
+      ResponseEntity<T> response = action.get();
+      entry.response.complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      entry.failed = true;
+      entries.remove(key, entry);
+      entry.response.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Drops expired and failed responses, then the oldest ones beyond the size limit. Returns at once
+   * if another thread is already evicting.
+   */
+  @Scheduled(fixedDelayString = "${store.idempotency.sweep-ms:60000}")
+  public void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long now = clock.millis();
+      Entry oldest;
+      while ((oldest = creationOrder.peek()) != null
+          && (oldest.failed || entries.size() > maxEntries || oldest.isExpired(now, ttlMillis))) {
+        creationOrder.poll();
+        queued.decrementAndGet();
+        entries.remove(oldest.key, oldest);
+      }
+      // Failed entries behind live ones wait for their turn, unless they pile up.
+      if (queued.get() > 2 * maxEntries) {
+        creationOrder.removeIf(
+            entry -> {
+              if (!entry.failed) {
+                return false;
+              }
+              queued.decrementAndGet();
+              return true;
+            });
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> ResponseEntity<T> replay(Entry entry, String operation, Object request) {
+    if (!entry.operation.equals(operation) || !entry.request.equals(request)) {
+      throw new IdempotencyKeyReusedException(
+          String.format(
+              "%s %s was already used for a different request",
+              HEADER, entry.key.idempotencyKey()));
+    }
+    ResponseEntity<?> response;
+    try {
+      response = entry.response.join();
+    } catch (CompletionException e) {
+      // The original failed while we waited; fail the same way, it was not applied.
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return (ResponseEntity<T>)
+        ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .header(REPLAYED_HEADER, "true")
+            .body(response.getBody());
+  }
+
+  private record Key(String userId, String idempotencyKey) {}
+
+  private static final class Entry {
+    final Key key;
+    final String operation;
+    final Object request;
+    final long createdAt;
+    final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+    volatile boolean failed;
+
+    Entry(Key key, String operation, Object request, long createdAt) {
+      this.key = key;
+      this.operation = operation;
+      this.request = request;
+      this.createdAt = createdAt;
+    }
+
+    boolean isExpired(long now, long ttlMillis) {
+      return now - createdAt >= ttlMillis;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.electronics.store.inventory;
+
+import com.electronics.store.exception.InsufficientStockException;
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.model.Product;
+import com.electronics.store.repository.ProductRepository;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Default engine: every mutation is one conditional UPDATE on the product row, or on one of its
+ * {@link StockBuckets} when the product runs in hot SKU mode.
+ */
+@RequiredArgsConstructor
+public class DatabaseInventoryEngine implements InventoryEngine {
+  private final ProductRepository productRepository;
+  private final StockDeltaWriter stockDeltaWriter;
+  private final StockBuckets stockBuckets;
+
+  @Override
+  @Transactional
+  public void reserve(Long productId, int quantity) {
+    // tryTake falls back to the product row itself.
+    if (stockBuckets.isSplit(productId)) {
+      if (stockBuckets.tryTake(productId, quantity)) {
+        return;
+      }
+    } else if (productRepository.decrementStockIfAvailable(productId, quantity) == 1
+        || stockBuckets.tryTake(productId, quantity)) {
+      return;
+    }
+    // Slow path only: tell a missing product apart from one without enough stock.
+    Product product =
+        productRepository
+            .findById(productId)
+            .orElseThrow(
+                () ->
+                    new ProductNotFoundException(
+                        String.format("Product with ID %s not found.", productId)));
+    throw new InsufficientStockException(
+        String.format(
+            "Insufficient stock for product ID %s. Available : %s - Requested : %s",
+            productId, product.getAvailableStock(), quantity));
+  }
+
+  @Override
+  @Transactional
+  public void release(Long productId, int quantity) {
+    if (stockBuckets.tryPut(productId, quantity)) {
+      return;
+    }
+    if (productRepository.incrementStock(productId, quantity) == 0) {
+      throw new ProductNotFoundException(String.format("Product with ID %s not found.", productId));
+    }
+  }
+
+  @Override
+  @Transactional
+  public void releaseAll(Map<Long, Integer> quantities) {
+    Map<Long, Long> deltas = new HashMap<>();
+    quantities.forEach((productId, quantity) -> deltas.put(productId, (long) quantity));
+    stockDeltaWriter.apply(deltas);
+  }
+
+  @Override
+  @Transactional
+  public boolean[] adjust(List<StockAdjustment> adjustments) {
+    stockBuckets.clear(
+        adjustments.stream()
+            .filter(StockAdjustment::isAbsolute)
+            .map(StockAdjustment::getProductId)
+            .toList());
+    boolean[] applied = stockDeltaWriter.adjust(adjustments);
+    for (int i = 0; i < applied.length; i++) {
+      StockAdjustment adjustment = adjustments.get(i);
+      // A split product keeps little or nothing on its row, so a rejected decrement may still fit.
+      if (!applied[i] && !adjustment.isAbsolute() && adjustment.getDelta() < 0) {
+        applied[i] =
+            stockBuckets.tryTake(
+                adjustment.getProductId(), Math.toIntExact(-adjustment.getDelta()));
+      }
+    }
+    return applied;
+  }
+
+  @Override
+  @Transactional
+  public void split(Long productId, int buckets) {
+    stockBuckets.split(productId, buckets);
+  }
+
+  @Override
+  @Transactional
+  public void evict(Long productId) {
+    stockBuckets.drop(productId);
+  }
+}
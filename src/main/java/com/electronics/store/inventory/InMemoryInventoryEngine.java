@@ -0,0 +1,241 @@
+package com.electronics.store.inventory;
+
+import com.electronics.store.exception.InsufficientStockException;
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps authoritative stock in per-product {@link PaddedStockCounter}s and writes net deltas to
+ * the database in periodic batches. Every mutation is journaled before it is acknowledged, so
+ * deltas that were not flushed yet are re-applied on the next start.
+ *
+ * <p>Mutations belong to a flush epoch. A flush opens the next epoch, waits until mutations still
+ * running in the previous one have finished, drains that epoch's deltas and only deletes its
+ * journal segment after the database write succeeded. Reservations never take a lock.
+ *
+ * <p>The counters are authoritative for this node only: run a single application node with this
+ * engine, and expect product reads to trail the counters by at most one flush interval.
+ */
+@Slf4j
+public class InMemoryInventoryEngine implements InventoryEngine {
+  private final ProductRepository productRepository;
+  private final StockDeltaWriter stockDeltaWriter;
+  private final InventoryDeltaJournal journal;
+  private final ConcurrentHashMap<Long, PaddedStockCounter> counters = new ConcurrentHashMap<>();
+  private final Object flushLock = new Object();
+  private final List<Long> unappliedEpochs = new ArrayList<>();
+  private volatile long epoch;
+
+  public InMemoryInventoryEngine(
+      ProductRepository productRepository,
+      StockDeltaWriter stockDeltaWriter,
+      InventoryDeltaJournal journal) {
+    this.productRepository = productRepository;
+    this.stockDeltaWriter = stockDeltaWriter;
+    this.journal = journal;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    epoch = journal.recover(stockDeltaWriter::apply);
+    journal.open(epoch);
+  }
+
+  @Override
+  public void reserve(Long productId, int quantity) {
+    PaddedStockCounter counter = counterFor(productId);
+    long currentEpoch = enterEpoch(counter);
+    try {
+      if (!counter.tryTake(quantity)) {
+        throw new InsufficientStockException(
+            String.format(
+                "Insufficient stock for product ID %s. Available : %s - Requested : %s",
+                productId, counter.get(), quantity));
+      }
+      try {
+        journal.append(currentEpoch, productId, -quantity);
+      } catch (RuntimeException e) {
+        counter.put(quantity);
+        throw e;
+      }
+      counter.addUnflushed(currentEpoch, -quantity);
+    } finally {
+      counter.exit(currentEpoch);
+    }
+    undoOnRollback(productId, -quantity);
+  }
+
+  @Override
+  public void release(Long productId, int quantity) {
+    add(counterFor(productId), productId, quantity);
+    undoOnRollback(productId, quantity);
+  }
+
+  @Override
+  public boolean[] adjust(List<StockAdjustment> adjustments) {
+    boolean[] applied = new boolean[adjustments.size()];
+    for (int i = 0; i < adjustments.size(); i++) {
+      StockAdjustment adjustment = adjustments.get(i);
+      PaddedStockCounter counter;
+      try {
+        counter = counterFor(adjustment.getProductId());
+      } catch (ProductNotFoundException e) {
+        continue;
+      }
+      long currentEpoch = enterEpoch(counter);
+      try {
+        applied[i] = apply(counter, currentEpoch, adjustment);
+      } finally {
+        counter.exit(currentEpoch);
+      }
+    }
+    return applied;
+  }
+
+  @Override
+  public void evict(Long productId) {
+    counters.remove(productId);
+  }
+
+  public long availableStock(Long productId) {
+    return counterFor(productId).get();
+  }
+
+  @Scheduled(fixedDelayString = "${store.inventory.flush-interval-ms:200}")
+  public void flush() {
+    synchronized (flushLock) {
+      long flushedEpoch = epoch;
+      journal.open(flushedEpoch + 1);
+      epoch = flushedEpoch + 1;
+
+      Map<Long, Long> deltas = new HashMap<>();
+      for (Map.Entry<Long, PaddedStockCounter> entry : counters.entrySet()) {
+        PaddedStockCounter counter = entry.getValue();
+        counter.awaitQuiescence(flushedEpoch);
+        long delta = counter.drainUnflushed(flushedEpoch);
+        if (delta != 0) {
+          deltas.put(entry.getKey(), delta);
+        }
+      }
+      journal.seal(flushedEpoch);
+      unappliedEpochs.add(flushedEpoch);
+
+      try {
+        stockDeltaWriter.apply(deltas);
+      } catch (RuntimeException e) {
+        // Carry the deltas into the open epoch; their records stay on disk until a flush succeeds.
+        log.warn("Stock flush of {} products failed, will retry", deltas.size(), e);
+        deltas.forEach(
+            (productId, delta) -> {
+              PaddedStockCounter counter = counters.get(productId);
+              if (counter != null) {
+                counter.addUnflushed(flushedEpoch + 1, delta);
+              }
+            });
+        return;
+      }
+      journal.delete(unappliedEpochs);
+      unappliedEpochs.clear();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+    journal.close();
+  }
+
+  private PaddedStockCounter counterFor(Long productId) {
+    return counters.computeIfAbsent(
+        productId,
+        id ->
+            new PaddedStockCounter(
+                productRepository
+                    .findById(id)
+                    .orElseThrow(
+                        () ->
+                            new ProductNotFoundException(
+                                String.format("Product with ID %s not found.", id)))
+                    .getAvailableStock()));
+  }
+
+  private boolean apply(PaddedStockCounter counter, long currentEpoch, StockAdjustment adjustment) {
+    long delta;
+    if (adjustment.isAbsolute()) {
+      delta = counter.set(adjustment.getDelta());
+    } else if (adjustment.getDelta() < 0) {
+      if (!counter.tryTake(-adjustment.getDelta())) {
+        return false;
+      }
+      delta = adjustment.getDelta();
+    } else {
+      // The counter is a long, but the flush writes to an int stock column.
+      if (!counter.tryPut(adjustment.getDelta(), Integer.MAX_VALUE)) {
+        return false;
+      }
+      delta = adjustment.getDelta();
+    }
+    try {
+      journal.append(currentEpoch, adjustment.getProductId(), delta);
+    } catch (RuntimeException e) {
+      counter.put(-delta);
+      throw e;
+    }
+    counter.addUnflushed(currentEpoch, delta);
+    return true;
+  }
+
+  private void add(PaddedStockCounter counter, Long productId, long delta) {
+    long currentEpoch = enterEpoch(counter);
+    try {
+      journal.append(currentEpoch, productId, delta);
+      counter.put(delta);
+      counter.addUnflushed(currentEpoch, delta);
+    } finally {
+      counter.exit(currentEpoch);
+    }
+  }
+
+  /**
+   * Counters are not transactional, so a mutation made inside a transaction that later rolls back
+   * (e.g. a basket save that lost an optimistic-locking race) is reverted here.
+   */
+  private void undoOnRollback(Long productId, long delta) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            PaddedStockCounter counter = counters.get(productId);
+            if (status == STATUS_ROLLED_BACK && counter != null) {
+              add(counter, productId, -delta);
+            }
+          }
+        });
+  }
+
+  private long enterEpoch(PaddedStockCounter counter) {
+    while (true) {
+      long currentEpoch = epoch;
+      counter.enter(currentEpoch);
+      if (epoch == currentEpoch) {
+        return currentEpoch;
+      }
+      counter.exit(currentEpoch);
+    }
+  }
+}
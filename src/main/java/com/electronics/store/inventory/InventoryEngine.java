@@ -0,0 +1,64 @@
+package com.electronics.store.inventory;
+
+import com.electronics.store.exception.InventoryModeException;
+import com.electronics.store.exception.ProductNotFoundException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the authoritative stock level of products. {@link com.electronics.store.service.ProductService}
+ * routes every stock mutation through the configured engine ({@code store.inventory.engine}).
+ */
+public interface InventoryEngine {
+
+  /**
+   * Takes {@code quantity} units out of stock.
+   *
+   * @throws com.electronics.store.exception.InsufficientStockException if less is available
+   * @throws ProductNotFoundException if the product does not exist
+   */
+  void reserve(Long productId, int quantity);
+
+  /**
+   * Puts {@code quantity} units back into stock.
+   *
+   * @throws ProductNotFoundException if the product does not exist
+   */
+  void release(Long productId, int quantity);
+
+  /**
+   * Puts stock back for many products at once, e.g. when reservations expire. Products deleted in
+   * the meantime are skipped.
+   */
+  default void releaseAll(Map<Long, Integer> quantities) {
+    quantities.forEach(
+        (productId, quantity) -> {
+          try {
+            release(productId, quantity);
+          } catch (ProductNotFoundException e) {
+            // nothing to return the stock to
+          }
+        });
+  }
+
+  /**
+   * Applies a chunk of bulk adjustments in order. Adjustments for missing products, or deltas that
+   * would take stock below zero, are skipped rather than failing the chunk.
+   *
+   * @return whether each adjustment was applied, index-aligned with {@code adjustments}
+   */
+  boolean[] adjust(List<StockAdjustment> adjustments);
+
+  /**
+   * Spreads a product's stock over {@code buckets} separately updated slices so that reservations
+   * of one very popular product stop queueing on a single row. One bucket turns this off again.
+   *
+   * @throws InventoryModeException if the engine has no hot SKU mode
+   */
+  default void split(Long productId, int buckets) {
+    throw new InventoryModeException("Hot SKU mode requires store.inventory.engine=database");
+  }
+
+  /** Drops any state held for a product that has been deleted. */
+  default void evict(Long productId) {}
+}
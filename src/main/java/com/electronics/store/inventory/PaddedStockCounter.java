@@ -0,0 +1,114 @@
+package com.electronics.store.inventory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class StockCounterLeftPadding {
+  long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class StockCounterFields extends StockCounterLeftPadding {
+  volatile long stock;
+  // Net change not yet written to the database, one slot per flush epoch parity.
+  volatile long unflushedEven;
+  volatile long unflushedOdd;
+  // Mutations currently running in an epoch, so a flush can wait for that epoch to go quiet.
+  volatile long inFlightEven;
+  volatile long inFlightOdd;
+}
+
+abstract class StockCounterRightPadding extends StockCounterFields {
+  long p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * Stock level of one product, padded onto its own cache lines so that hot products do not
+ * false-share with each other. All updates are lock-free CAS / fetch-and-add operations.
+ */
+public final class PaddedStockCounter extends StockCounterRightPadding {
+  private static final VarHandle STOCK;
+  private static final VarHandle UNFLUSHED_EVEN;
+  private static final VarHandle UNFLUSHED_ODD;
+  private static final VarHandle IN_FLIGHT_EVEN;
+  private static final VarHandle IN_FLIGHT_ODD;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      STOCK = lookup.findVarHandle(StockCounterFields.class, "stock", long.class);
+      UNFLUSHED_EVEN = lookup.findVarHandle(StockCounterFields.class, "unflushedEven", long.class);
+      UNFLUSHED_ODD = lookup.findVarHandle(StockCounterFields.class, "unflushedOdd", long.class);
+      IN_FLIGHT_EVEN = lookup.findVarHandle(StockCounterFields.class, "inFlightEven", long.class);
+      IN_FLIGHT_ODD = lookup.findVarHandle(StockCounterFields.class, "inFlightOdd", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  public PaddedStockCounter(long initialStock) {
+    this.stock = initialStock;
+  }
+
+  public long get() {
+    return stock;
+  }
+
+  /** Takes {@code quantity} units if at least that many are left; never goes below zero. */
+  public boolean tryTake(long quantity) {
+    long current;
+    do {
+      current = stock;
+      if (current < quantity) {
+        return false;
+      }
+    } while (!STOCK.compareAndSet(this, current, current - quantity));
+    return true;
+  }
+
+  /** Puts {@code quantity} units back unless that would take stock past {@code limit}. */
+  public boolean tryPut(long quantity, long limit) {
+    long current;
+    do {
+      current = stock;
+      if (current > limit - quantity) {
+        return false;
+      }
+    } while (!STOCK.compareAndSet(this, current, current + quantity));
+    return true;
+  }
+
+  public void put(long quantity) {
+    STOCK.getAndAdd(this, quantity);
+  }
+
+  /** Sets an absolute stock level and returns the change it made. */
+  public long set(long newStock) {
+    return newStock - (long) STOCK.getAndSet(this, newStock);
+  }
+
+  void addUnflushed(long epoch, long delta) {
+    (isEven(epoch) ? UNFLUSHED_EVEN : UNFLUSHED_ODD).getAndAdd(this, delta);
+  }
+
+  long drainUnflushed(long epoch) {
+    return (long) (isEven(epoch) ? UNFLUSHED_EVEN : UNFLUSHED_ODD).getAndSet(this, 0L);
+  }
+
+  void enter(long epoch) {
+    (isEven(epoch) ? IN_FLIGHT_EVEN : IN_FLIGHT_ODD).getAndAdd(this, 1L);
+  }
+
+  void exit(long epoch) {
+    (isEven(epoch) ? IN_FLIGHT_EVEN : IN_FLIGHT_ODD).getAndAdd(this, -1L);
+  }
+
+  void awaitQuiescence(long epoch) {
+    while ((long) (isEven(epoch) ? IN_FLIGHT_EVEN : IN_FLIGHT_ODD).getVolatile(this) != 0) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static boolean isEven(long epoch) {
+    return (epoch & 1) == 0;
+  }
+}
@@ -0,0 +1,19 @@
+package com.electronics.store.inventory;
+
+import lombok.Value;
+
+/** One line of a bulk stock adjustment: either a relative {@code delta} or an absolute level. */
+@Value
+public class StockAdjustment {
+  Long productId;
+  long delta;
+  boolean absolute;
+
+  public static StockAdjustment delta(Long productId, long delta) {
+    return new StockAdjustment(productId, delta, false);
+  }
+
+  public static StockAdjustment absolute(Long productId, long stock) {
+    return new StockAdjustment(productId, stock, true);
+  }
+}
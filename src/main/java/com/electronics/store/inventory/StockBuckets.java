@@ -0,0 +1,180 @@
+package com.electronics.store.inventory;
+
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.StockBucket;
+import com.electronics.store.repository.ProductRepository;
+import com.electronics.store.repository.StockBucketRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Hot SKU mode: a product's stock can be split across several {@link StockBucket} rows so that
+ * concurrent reservations update different rows instead of queueing on the product row. A
+ * reservation takes from one random bucket that holds enough, spreads over several when none does
+ * and falls back to the product row; available stock is the product row plus its buckets.
+ *
+ * <p>Which products are split is cached per node and refreshed every {@code
+ * store.inventory.hot-sku-refresh-ms}. A stale cache only costs an extra statement: callers fall
+ * back to the buckets when the product row is short, and stock put back on the row still counts.
+ */
+@RequiredArgsConstructor
+public class StockBuckets {
+  public static final int MAX_BUCKETS = 64;
+  private static final int MAX_READS = 3;
+
+  private final StockBucketRepository stockBucketRepository;
+  private final ProductRepository productRepository;
+  private volatile Map<Long, Integer> bucketCounts = Map.of();
+
+  @Scheduled(fixedDelayString = "${store.inventory.hot-sku-refresh-ms:5000}")
+  public void refresh() {
+    Map<Long, Integer> counts = new ConcurrentHashMap<>();
+    for (Object[] row : stockBucketRepository.countByProduct()) {
+      counts.put((Long) row[0], ((Long) row[1]).intValue());
+    }
+    bucketCounts = counts;
+  }
+
+  public boolean isSplit(Long productId) {
+    return bucketCounts.containsKey(productId);
+  }
+
+  /**
+   * Takes {@code quantity} units from the product's buckets: from one bucket that holds enough,
+   * picked at random, or else from as many as it takes in bucket order. A bucket emptied by a
+   * concurrent take first is skipped and the buckets are read again, up to {@value #MAX_READS}
+   * times; whatever they cannot cover is taken from the product row. Buckets taken from are always
+   * taken in bucket order, so concurrent takes cannot deadlock. Must run inside a transaction.
+   *
+   * @return false, with nothing taken, if buckets and row together hold less than {@code quantity}
+   */
+  public boolean tryTake(Long productId, int quantity) {
+    int remaining = quantity;
+    int lastTaken = -1;
+    Map<Integer, Integer> taken = new LinkedHashMap<>();
+    for (int read = 0; read < MAX_READS && remaining > 0; read++) {
+      // A plain read locks nothing, and a conditional UPDATE that matches no row locks nothing
+      // either, so the only locks held are those of buckets actually taken from, in order.
+      List<StockBucket> stocked = new ArrayList<>();
+      long total = 0;
+      for (StockBucket bucket :
+          stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(productId, 0)) {
+        if (bucket.getBucket() > lastTaken) {
+          stocked.add(bucket);
+          total += bucket.getStock();
+        }
+      }
+      if (total == 0) {
+        break;
+      }
+      if (remaining == quantity) {
+        List<StockBucket> enough =
+            stocked.stream().filter(bucket -> bucket.getStock() >= quantity).toList();
+        if (!enough.isEmpty()) {
+          StockBucket bucket = enough.get(ThreadLocalRandom.current().nextInt(enough.size()));
+          if (stockBucketRepository.takeIfAvailable(productId, bucket.getBucket(), quantity) == 1) {
+            return true;
+          }
+          continue;
+        }
+      }
+      for (StockBucket bucket : stocked) {
+        int amount = Math.min(bucket.getStock(), remaining);
+        if (stockBucketRepository.takeIfAvailable(productId, bucket.getBucket(), amount) == 1) {
+          remaining -= amount;
+          lastTaken = bucket.getBucket();
+          taken.put(lastTaken, amount);
+          if (remaining == 0) {
+            return true;
+          }
+        }
+      }
+    }
+    if (productRepository.decrementStockIfAvailable(productId, remaining) == 1) {
+      return true;
+    }
+    // Short after all: hand back what was taken, on rows this transaction already holds, rather
+    // than fail and roll back a caller that may be applying other products too.
+    taken.forEach((bucket, amount) -> stockBucketRepository.put(productId, bucket, amount));
+    return false;
+  }
+
+  /**
+   * Puts {@code quantity} units into a random bucket of a split product.
+   *
+   * @return false if this node does not know the product as split; the caller should put the
+   *     stock back on the product row instead
+   */
+  public boolean tryPut(Long productId, int quantity) {
+    int buckets = bucketCounts.getOrDefault(productId, 0);
+    return buckets > 0
+        && stockBucketRepository.put(
+                productId, ThreadLocalRandom.current().nextInt(buckets), quantity)
+            == 1;
+  }
+
+  /**
+   * Redistributes all of a product's stock, row and buckets alike, evenly over {@code buckets}
+   * new buckets. One bucket merges the stock back onto the product row and leaves hot SKU mode.
+   * Must run inside a transaction.
+   */
+  public void split(Long productId, int buckets) {
+    if (buckets < 1 || buckets > MAX_BUCKETS) {
+      throw new IllegalArgumentException(
+          String.format("Bucket count must be between 1 and %s: %s", MAX_BUCKETS, buckets));
+    }
+    Product product =
+        productRepository
+            .lockById(productId)
+            .orElseThrow(
+                () ->
+                    new ProductNotFoundException(
+                        String.format("Product with ID %s not found.", productId)));
+    long total = product.getStock();
+    for (StockBucket bucket : stockBucketRepository.lockByProductId(productId)) {
+      total += bucket.getStock();
+    }
+    stockBucketRepository.deleteByProductId(productId);
+    if (buckets == 1) {
+      productRepository.setStock(productId, Math.toIntExact(total));
+      forget(productId);
+      return;
+    }
+    productRepository.setStock(productId, 0);
+    List<StockBucket> rows = new ArrayList<>(buckets);
+    for (int i = 0; i < buckets; i++) {
+      long share = total / buckets + (i < total % buckets ? 1 : 0);
+      rows.add(new StockBucket(null, productId, i, Math.toIntExact(share)));
+    }
+    stockBucketRepository.saveAll(rows);
+    Map<Long, Integer> counts = new ConcurrentHashMap<>(bucketCounts);
+    counts.put(productId, buckets);
+    bucketCounts = counts;
+  }
+
+  /** Empties the buckets of products whose stock is being set to an absolute level. */
+  public void clear(Collection<Long> productIds) {
+    if (!productIds.isEmpty()) {
+      stockBucketRepository.clearStock(productIds);
+    }
+  }
+
+  public void drop(Long productId) {
+    stockBucketRepository.deleteByProductId(productId);
+    forget(productId);
+  }
+
+  private void forget(Long productId) {
+    Map<Long, Integer> counts = new ConcurrentHashMap<>(bucketCounts);
+    counts.remove(productId);
+    bucketCounts = counts;
+  }
+}
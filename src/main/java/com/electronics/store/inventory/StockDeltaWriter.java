@@ -0,0 +1,105 @@
+package com.electronics.store.inventory;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Writes stock changes to the product table as chunked JDBC batch updates. Pending JPA changes are
+ * flushed first and the persistence context is cleared afterwards, so entities loaded in the same
+ * transaction never shadow the new stock levels.
+ */
+@RequiredArgsConstructor
+public class StockDeltaWriter {
+  private static final String APPLY_DELTA_SQL =
+      "update product set stock = stock + ?, version = version + 1 where id = ?";
+  // Bounds the delta rather than stock + delta, which would itself overflow the int column.
+  private static final String APPLY_GUARDED_DELTA_SQL =
+      "update product set stock = stock + ?, version = version + 1"
+          + " where id = ? and ? between -stock and "
+          + Integer.MAX_VALUE
+          + " - stock";
+  private static final String SET_STOCK_SQL =
+      "update product set stock = ?, version = version + 1 where id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionOperations transactionOperations;
+  private final EntityManager entityManager;
+  private final int batchSize;
+
+  public void apply(Map<Long, Long> deltas) {
+    if (deltas.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<Long, Long>> rows = new ArrayList<>(deltas.entrySet());
+    transactionOperations.executeWithoutResult(
+        status -> {
+          entityManager.flush();
+          jdbcTemplate.batchUpdate(
+              APPLY_DELTA_SQL,
+              rows,
+              batchSize,
+              (statement, row) -> {
+                statement.setLong(1, row.getValue());
+                statement.setLong(2, row.getKey());
+              });
+          entityManager.clear();
+        });
+  }
+
+  /**
+   * Applies adjustments in their given order, one JDBC batch per run of same-kind adjustments.
+   * Deltas that would take stock below zero or past the int stock column match no row and are
+   * reported as not applied.
+   *
+   * @return whether each adjustment changed a row, index-aligned with {@code adjustments}
+   */
+  public boolean[] adjust(List<StockAdjustment> adjustments) {
+    boolean[] applied = new boolean[adjustments.size()];
+    transactionOperations.executeWithoutResult(
+        status -> {
+          entityManager.flush();
+          int runStart = 0;
+          while (runStart < adjustments.size()) {
+            boolean absolute = adjustments.get(runStart).isAbsolute();
+            int runEnd = runStart;
+            while (runEnd < adjustments.size() && adjustments.get(runEnd).isAbsolute() == absolute) {
+              runEnd++;
+            }
+            List<StockAdjustment> run = adjustments.subList(runStart, runEnd);
+            int[][] counts =
+                absolute
+                    ? jdbcTemplate.batchUpdate(
+                        SET_STOCK_SQL,
+                        run,
+                        batchSize,
+                        (statement, adjustment) -> {
+                          statement.setLong(1, adjustment.getDelta());
+                          statement.setLong(2, adjustment.getProductId());
+                        })
+                    : jdbcTemplate.batchUpdate(
+                        APPLY_GUARDED_DELTA_SQL,
+                        run,
+                        batchSize,
+                        (statement, adjustment) -> {
+                          statement.setLong(1, adjustment.getDelta());
+                          statement.setLong(2, adjustment.getProductId());
+                          statement.setLong(3, adjustment.getDelta());
+                        });
+            int index = runStart;
+            for (int[] batch : counts) {
+              for (int count : batch) {
+                applied[index++] = count != 0;
+              }
+            }
+            runStart = runEnd;
+          }
+          entityManager.clear();
+        });
+    return applied;
+  }
+}
@@ -0,0 +1,451 @@
+package com.electronics.store.ledger;
+
+import com.electronics.store.collection.LongLongHashMap;
+import jakarta.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link StockLedger} kept in memory-mapped segment files of fixed-size records. Writers claim a
+ * record slot with one fetch-and-add and fill it with absolute puts, so an append neither locks
+ * nor allocates; the record's checksum is written last, with release semantics, and marks it
+ * complete. A full segment is sealed and the next one is mapped. Segments are never rewritten or
+ * deleted.
+ *
+ * <p>A snapshot holds the stock level of every product as of a position in the ledger. Each run
+ * starts a new segment; on startup {@link #recover} folds the last snapshot and every older
+ * segment into stock levels, which {@link StockLedgerReplayer} writes back to the products.
+ *
+ * <p>Inside a transaction, records wait in a per-thread buffer that is registered with the
+ * transaction once and appended after the commit, so recording allocates nothing once the buffer
+ * has grown to the largest transaction the thread has seen.
+ *
+ * <p>Record layout: timestamp millis (8), product id (8), amount (8), movement code (4), checksum
+ * (4).
+ */
+@Slf4j
+public class MappedStockLedger implements StockLedger, Closeable {
+  static final int RECORD_SIZE = 32;
+  private static final int TIMESTAMP = 0;
+  private static final int PRODUCT_ID = 8;
+  private static final int AMOUNT = 16;
+  private static final int CODE = 24;
+  private static final int CHECKSUM = 28;
+  private static final String SEGMENT_PREFIX = "stock-ledger-";
+  private static final String SEGMENT_SUFFIX = ".segment";
+  private static final String SNAPSHOT_FILE = "stock-ledger.snapshot";
+  private static final int SNAPSHOT_MAGIC = 0x534C4731;
+  private static final int SNAPSHOT_HEADER = Integer.BYTES * 3 + Long.BYTES;
+  private static final VarHandle CHECKSUMS =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  private final Path directory;
+  private final int capacity;
+  private final Clock clock;
+  private final long firstSegment;
+  private final Object rollLock = new Object();
+  private final Queue<Segment> sealed = new ConcurrentLinkedQueue<>();
+  private volatile Segment active;
+  private final ThreadLocal<PendingRecords> pendingRecords =
+      ThreadLocal.withInitial(PendingRecords::new);
+
+  // Snapshot state: stock levels as of (snapshotSegment, snapshotOffset). Guarded by this.
+  private final LongLongHashMap levels = new LongLongHashMap();
+  private long snapshotSegment;
+  private int snapshotOffset;
+  private boolean recovered;
+  private long foldedRecords;
+
+  public MappedStockLedger(Path directory, int segmentSize, Clock clock) throws IOException {
+    if (segmentSize < RECORD_SIZE) {
+      throw new IllegalArgumentException(
+          "Segment size must hold at least one record: " + segmentSize);
+    }
+    this.directory = Files.createDirectories(directory);
+    this.capacity = segmentSize - segmentSize % RECORD_SIZE;
+    this.clock = clock;
+    long oldest = Long.MAX_VALUE;
+    long newest = -1;
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path segment : stream) {
+        long index = indexOf(segment);
+        oldest = Math.min(oldest, index);
+        newest = Math.max(newest, index);
+      }
+    }
+    this.firstSegment = newest + 1;
+    this.snapshotSegment = newest < 0 ? firstSegment : oldest;
+    this.active = Segment.open(segmentPath(firstSegment), firstSegment, capacity);
+  }
+
+  @Override
+  public void record(StockMovement movement, long productId, long amount) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      append(movement, productId, amount);
+      return;
+    }
+    PendingRecords pending = (PendingRecords) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = pendingRecords.get();
+      if (pending.bound) {
+        // Still held by a transaction suspended on this thread, e.g. around a REQUIRES_NEW one.
+        pending = new PendingRecords();
+      }
+      pending.bound = true;
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    pending.add(movement, productId, amount);
+  }
+
+  /**
+   * Loads the last snapshot and folds every segment left by previous runs into it.
+   *
+   * @param consumer receives the rebuilt stock level of every product
+   * @return false if there was no history to recover from
+   */
+  public synchronized boolean recover(LongLongHashMap.EntryConsumer consumer) throws IOException {
+    long started = System.nanoTime();
+    boolean hadHistory = loadSnapshot();
+    long foldedBefore = foldedRecords;
+    for (long index = snapshotSegment; index < firstSegment; index++) {
+      Path path = segmentPath(index);
+      if (!Files.exists(path)) {
+        continue;
+      }
+      hadHistory = true;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        int from = index == snapshotSegment ? snapshotOffset : 0;
+        // A previous run may have died with claimed but unwritten slots, so skip gaps.
+        fold(buffer, from, buffer.limit(), false);
+      }
+    }
+    snapshotSegment = firstSegment;
+    snapshotOffset = 0;
+    recovered = true;
+    long records = foldedRecords - foldedBefore;
+    if (hadHistory) {
+      long nanos = Math.max(System.nanoTime() - started, 1);
+      log.info(
+          "Replayed {} stock ledger records into {} products in {} ms ({} records/s)",
+          records,
+          levels.size(),
+          nanos / 1_000_000,
+          records * 1_000_000_000L / nanos);
+    }
+    levels.forEach(consumer);
+    return hadHistory;
+  }
+
+  /** Folds everything appended since the last snapshot and writes a new snapshot file. */
+  @Scheduled(fixedDelayString = "${store.ledger.snapshot-interval-ms:60000}")
+  public synchronized void snapshot() {
+    if (!recovered) {
+      return;
+    }
+    Segment segment;
+    while ((segment = sealed.peek()) != null) {
+      segment.awaitWriters();
+      int offset = segment.index == snapshotSegment ? snapshotOffset : 0;
+      // With every writer gone, a gap is a slot whose write failed: skip it, not the records after.
+      while ((offset = fold(segment.buffer, offset, segment.used(), true)) < segment.used()) {
+        log.warn("Skipping unwritten stock ledger record {} of segment {}", offset, segment.index);
+        offset += RECORD_SIZE;
+      }
+      snapshotSegment = segment.index + 1;
+      snapshotOffset = 0;
+      sealed.poll();
+    }
+    segment = active;
+    if (segment.index == snapshotSegment) {
+      // Stop at the first record still being written; the next snapshot resumes there.
+      snapshotOffset = fold(segment.buffer, snapshotOffset, segment.used(), true);
+    }
+    try {
+      writeSnapshot();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  @PreDestroy
+  public void close() {
+    snapshot();
+    active.close();
+  }
+
+  private void append(StockMovement movement, long productId, long amount) {
+    long timestamp = clock.millis();
+    try {
+      Segment segment = active;
+      int offset;
+      while ((offset = segment.claim()) < 0) {
+        segment = rollOver(segment);
+      }
+      try {
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putLong(offset + PRODUCT_ID, productId);
+        buffer.putLong(offset + AMOUNT, amount);
+        buffer.putInt(offset + CODE, movement.code());
+        CHECKSUMS.setRelease(
+            buffer, offset + CHECKSUM, checksum(timestamp, productId, amount, movement.code()));
+      } finally {
+        segment.exit();
+      }
+    } catch (RuntimeException e) {
+      // The stock change itself has already been applied; failing the caller would not undo it.
+      log.error("Could not record {} of {} for product {}", movement, amount, productId, e);
+    }
+  }
+
+  private Segment rollOver(Segment full) {
+    synchronized (rollLock) {
+      if (active == full) {
+        Segment next = Segment.open(segmentPath(full.index + 1), full.index + 1, capacity);
+        sealed.add(full);
+        active = next;
+        full.close();
+      }
+      return active;
+    }
+  }
+
+  /**
+   * Applies records from {@code from} up to {@code limit} to {@link #levels}.
+   *
+   * @return the offset folding stopped at
+   */
+  private int fold(ByteBuffer buffer, int from, int limit, boolean stopAtGap) {
+    int offset = from;
+    for (; offset + RECORD_SIZE <= limit; offset += RECORD_SIZE) {
+      int checksum = (int) CHECKSUMS.getAcquire(buffer, offset + CHECKSUM);
+      long timestamp = buffer.getLong(offset + TIMESTAMP);
+      long productId = buffer.getLong(offset + PRODUCT_ID);
+      long amount = buffer.getLong(offset + AMOUNT);
+      int code = buffer.getInt(offset + CODE);
+      StockMovement movement = StockMovement.ofCode(code);
+      if (checksum == 0
+          || movement == null
+          || checksum != checksum(timestamp, productId, amount, code)) {
+        if (stopAtGap) {
+          return offset;
+        }
+        continue;
+      }
+      if (movement == StockMovement.PRODUCT_DELETED) {
+        levels.remove(productId, 0);
+      } else if (movement.isAbsolute()) {
+        levels.put(productId, amount, 0);
+      } else {
+        levels.addTo(productId, amount);
+      }
+      foldedRecords++;
+    }
+    return offset;
+  }
+
+  private boolean loadSnapshot() throws IOException {
+    Path path = directory.resolve(SNAPSHOT_FILE);
+    if (!Files.exists(path)) {
+      return false;
+    }
+    ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(path));
+    if (snapshot.remaining() < SNAPSHOT_HEADER || snapshot.getInt() != SNAPSHOT_MAGIC) {
+      log.warn("Ignoring unreadable stock ledger snapshot {}", path);
+      return false;
+    }
+    snapshotSegment = snapshot.getLong();
+    snapshotOffset = snapshot.getInt();
+    int count = snapshot.getInt();
+    for (int i = 0; i < count; i++) {
+      levels.put(snapshot.getLong(), snapshot.getLong(), 0);
+    }
+    return true;
+  }
+
+  private void writeSnapshot() throws IOException {
+    ByteBuffer snapshot = ByteBuffer.allocate(SNAPSHOT_HEADER + levels.size() * Long.BYTES * 2);
+    snapshot.putInt(SNAPSHOT_MAGIC).putLong(snapshotSegment).putInt(snapshotOffset);
+    snapshot.putInt(levels.size());
+    levels.forEach((productId, stock) -> snapshot.putLong(productId).putLong(stock));
+    Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+    Files.write(temporary, snapshot.array());
+    Files.move(
+        temporary,
+        directory.resolve(SNAPSHOT_FILE),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private Path segmentPath(long index) {
+    return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+  }
+
+  private static long indexOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static int checksum(long timestamp, long productId, long amount, int code) {
+    long hash = timestamp * 0x9E3779B97F4A7C15L ^ productId;
+    hash = hash * 0x9E3779B97F4A7C15L ^ amount;
+    hash = hash * 0x9E3779B97F4A7C15L ^ code;
+    int checksum = (int) (hash ^ (hash >>> 32));
+    // Zero marks a slot that has not been written yet.
+    return checksum == 0 ? 1 : checksum;
+  }
+
+  private static final class Segment {
+    private static final VarHandle NEXT;
+    private static final VarHandle WRITERS;
+
+    static {
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        NEXT = lookup.findVarHandle(Segment.class, "next", long.class);
+        WRITERS = lookup.findVarHandle(Segment.class, "writers", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    final long index;
+    final MappedByteBuffer buffer;
+    private final FileChannel channel;
+    private final int capacity;
+    private volatile long next;
+    private volatile long writers;
+
+    private Segment(long index, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+      this.index = index;
+      this.channel = channel;
+      this.buffer = buffer;
+      this.capacity = capacity;
+    }
+
+    static Segment open(Path path, long index, int capacity) {
+      try {
+        FileChannel channel =
+            FileChannel.open(
+                path,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new Segment(
+            index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * Claims the next record slot. On success the caller must call {@link #exit()} once the record
+     * is written.
+     *
+     * @return the slot offset, or -1 if the segment is full
+     */
+    int claim() {
+      WRITERS.getAndAdd(this, 1L);
+      long offset = (long) NEXT.getAndAdd(this, (long) RECORD_SIZE);
+      if (offset + RECORD_SIZE > capacity) {
+        exit();
+        return -1;
+      }
+      return (int) offset;
+    }
+
+    void exit() {
+      WRITERS.getAndAdd(this, -1L);
+    }
+
+    int used() {
+      return (int) Math.min(next, capacity);
+    }
+
+    void awaitWriters() {
+      while ((long) WRITERS.getVolatile(this) != 0) {
+        Thread.onSpinWait();
+      }
+    }
+
+    /** Closes the file; the mapping stays valid for writers that are still finishing. */
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        log.warn("Could not close stock ledger segment {}", index, e);
+      }
+    }
+  }
+
+  /** Records of one transaction, appended once it commits. Reused by the thread's transactions. */
+  private final class PendingRecords implements TransactionSynchronization {
+    private StockMovement[] movements = new StockMovement[16];
+    private long[] productIds = new long[16];
+    private long[] amounts = new long[16];
+    private int size;
+    private boolean bound;
+
+    void add(StockMovement movement, long productId, long amount) {
+      if (size == amounts.length) {
+        movements = Arrays.copyOf(movements, size * 2);
+        productIds = Arrays.copyOf(productIds, size * 2);
+        amounts = Arrays.copyOf(amounts, size * 2);
+      }
+      movements[size] = movement;
+      productIds[size] = productId;
+      amounts[size] = amount;
+      size++;
+    }
+
+    @Override
+    public void suspend() {
+      TransactionSynchronizationManager.unbindResource(MappedStockLedger.this);
+    }
+
+    @Override
+    public void resume() {
+      TransactionSynchronizationManager.bindResource(MappedStockLedger.this, this);
+    }
+
+    @Override
+    public void afterCommit() {
+      for (int i = 0; i < size; i++) {
+        append(movements[i], productIds[i], amounts[i]);
+      }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(MappedStockLedger.this);
+      size = 0;
+      bound = false;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.electronics.store.ledger;
+
+/**
+ * Audit trail of every stock change. {@link com.electronics.store.service.ProductService} and
+ * {@link com.electronics.store.service.StockAdjustmentService} record each mutation once it has
+ * been applied; inside a transaction the record is only written after the commit.
+ */
+public interface StockLedger {
+
+  /** Ledger used while {@code store.ledger.enabled} is off. */
+  StockLedger DISABLED = (movement, productId, amount) -> {};
+
+  /**
+   * @param amount the signed change, or the new stock level for {@linkplain
+   *     StockMovement#isAbsolute() absolute} movements
+   */
+  void record(StockMovement movement, long productId, long amount);
+}
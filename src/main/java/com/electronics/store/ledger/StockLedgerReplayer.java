@@ -0,0 +1,66 @@
+package com.electronics.store.ledger;
+
+import com.electronics.store.inventory.InventoryEngine;
+import com.electronics.store.inventory.StockAdjustment;
+import com.electronics.store.model.Product;
+import com.electronics.store.repository.ProductRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Rebuilds product stock from the {@link MappedStockLedger} once every bean is created, which is
+ * before the web server starts taking requests that could change stock meanwhile. Levels
+ * replayed from earlier runs are written back through the {@link InventoryEngine} and recorded as
+ * the new {@link StockMovement#BASELINE}, so they supersede anything recorded during startup. The
+ * first time the ledger runs, the current stock of every product becomes the baseline instead.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StockLedgerReplayer implements SmartInitializingSingleton {
+  private final MappedStockLedger ledger;
+  private final InventoryEngine inventoryEngine;
+  private final ProductRepository productRepository;
+  private final int chunkSize;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    try {
+      replay();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void replay() throws IOException {
+    List<StockAdjustment> levels = new ArrayList<>();
+    boolean hadHistory =
+        ledger.recover(
+            (productId, stock) -> levels.add(StockAdjustment.absolute(productId, stock)));
+    if (hadHistory) {
+      int restored = 0;
+      for (int from = 0; from < levels.size(); from += chunkSize) {
+        List<StockAdjustment> chunk =
+            levels.subList(from, Math.min(from + chunkSize, levels.size()));
+        boolean[] applied = inventoryEngine.adjust(chunk);
+        for (int i = 0; i < applied.length; i++) {
+          if (applied[i]) {
+            StockAdjustment level = chunk.get(i);
+            ledger.record(StockMovement.BASELINE, level.getProductId(), level.getDelta());
+            restored++;
+          }
+        }
+      }
+      log.info("Restored stock of {} products from the stock ledger", restored);
+    } else {
+      for (Product product : productRepository.findAll()) {
+        ledger.record(StockMovement.BASELINE, product.getId(), product.getAvailableStock());
+      }
+    }
+    ledger.snapshot();
+  }
+}
@@ -0,0 +1,48 @@
+package com.electronics.store.ledger;
+
+/**
+ * Why a stock level changed. Absolute movements carry the new stock level, all others a signed
+ * delta.
+ */
+public enum StockMovement {
+  PRODUCT_CREATED(1, true),
+  PRODUCT_DELETED(2, true),
+  BASKET_RESERVED(3, false),
+  BASKET_RELEASED(4, false),
+  RESERVATION_EXPIRED(5, false),
+  RESTOCK_DELTA(6, false),
+  RESTOCK_SET(7, true),
+  // Stock level a product had when the ledger was (re)started: rebuilt by replay, or read from the
+  // database the first time the ledger runs.
+  BASELINE(8, true),
+  BASKET_RECLAIMED(9, false);
+
+  private static final StockMovement[] BY_CODE = new StockMovement[values().length + 1];
+
+  static {
+    for (StockMovement movement : values()) {
+      BY_CODE[movement.code] = movement;
+    }
+  }
+
+  private final int code;
+  private final boolean absolute;
+
+  StockMovement(int code, boolean absolute) {
+    this.code = code;
+    this.absolute = absolute;
+  }
+
+  public int code() {
+    return code;
+  }
+
+  public boolean isAbsolute() {
+    return absolute;
+  }
+
+  /** Returns the movement with this on-disk code, or null for an unknown code. */
+  public static StockMovement ofCode(int code) {
+    return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+  }
+}
@@ -8,5 +8,6 @@ import org.mapstruct.Mapping;
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
   @Mapping(target = "id", ignore = true)
+  @Mapping(target = "version", ignore = true)
   Product toEntity(ProductCreateRequest request);
 }
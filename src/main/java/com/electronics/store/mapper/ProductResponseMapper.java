@@ -9,5 +9,6 @@ import org.mapstruct.Mapping;
 public interface ProductResponseMapper {
 
   @Mapping(source = "available", target = "available")
+  @Mapping(source = "availableStock", target = "stock")
   ProductResponse toDto(Product product);
 }
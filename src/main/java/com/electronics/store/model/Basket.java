@@ -1,27 +1,248 @@
 package com.electronics.store.model;
 
+import com.electronics.store.basket.BasketItemCodec;
+import com.electronics.store.basket.BasketItemStorage;
+import com.electronics.store.collection.LongLongHashMap;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
+@Table(indexes = @Index(name = "idx_basket_last_modified", columnList = "last_modified"))
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Basket {
+  private static final long ABSENT = -1;
+
   @Id @GeneratedValue private Long id;
 
   private String userId;
 
+  /**
+   * The basket's lines. Not mapped itself: {@link #storeItems} writes them to {@link
+   * #collectionItems} or {@link #encodedItems}, and loading reads them back from whichever holds
+   * them.
+   */
+  @Transient private List<BasketItem> items;
+
   @ElementCollection(fetch = FetchType.EAGER)
   @CollectionTable(name = "basket_items", joinColumns = @JoinColumn(name = "basket_id"))
-  private List<BasketItem> items;
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private List<BasketItem> collectionItems = new ArrayList<>();
+
+  @Lob
+  @Column(name = "encoded_items")
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private byte[] encodedItems;
+
+  /**
+   * Only ever grows: every save that changes the basket, even if just {@link #lastModified},
+   * increments it. Clients use it, through the basket's ETag, to tell whether the basket changed.
+   */
+  @Version private Long version;
+
+  /** When the basket's lines last changed; set by the basket store on every save. */
+  @Column(name = "last_modified")
+  private Instant lastModified;
+
+  /**
+   * Position of each product's line in {@link #items}. Not persisted; rebuilt whenever it no
+   * longer matches the list, i.e. when the list was replaced or a caller edited it directly.
+   */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private transient LongLongHashMap itemIndex;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private transient List<BasketItem> indexedItems;
+
+  /** {@link Lines#changes()} of {@link #indexedItems} when {@link #itemIndex} last matched it. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private transient int indexedChanges;
+
+  public Basket(Long id, String userId, List<BasketItem> items) {
+    this.id = id;
+    this.userId = userId;
+    this.items = Lines.of(items);
+  }
 
   public Basket(String userId) {
     this.userId = userId;
-    items = new ArrayList<>();
+    items = new Lines();
+  }
+
+  /** Takes {@code items} as the basket's lines; a list of another type is copied. */
+  public void setItems(List<BasketItem> items) {
+    this.items = Lines.of(items);
+  }
+
+  /**
+   * Copies {@link #getItems()} into the mapped columns of the given storage mode before the basket
+   * is saved, and empties the other one, so a basket moves to the configured mode on its next
+   * save. Collection rows are left untouched if the lines did not change.
+   */
+  public void storeItems(BasketItemStorage storage) {
+    List<BasketItem> lines = items != null ? items : List.of();
+    if (storage == BasketItemStorage.COMPACT) {
+      encodedItems = BasketItemCodec.encode(lines);
+      if (!collectionItems.isEmpty()) {
+        collectionItems.clear();
+      }
+      return;
+    }
+    encodedItems = null;
+    if (!sameLines(collectionItems, lines)) {
+      collectionItems.clear();
+      for (BasketItem item : lines) {
+        collectionItems.add(new BasketItem(item.getProductId(), item.getQuantity()));
+      }
+    }
+  }
+
+  @PostLoad
+  void loadItems() {
+    if (encodedItems != null) {
+      items = Lines.of(BasketItemCodec.decode(encodedItems));
+      return;
+    }
+    items = new Lines();
+    for (BasketItem item : collectionItems) {
+      items.add(new BasketItem(item.getProductId(), item.getQuantity()));
+    }
+  }
+
+  /** Returns the line for {@code productId}, or null if the basket does not hold the product. */
+  public BasketItem findItem(Long productId) {
+    int position = positionOf(productId);
+    return position < 0 ? null : items.get(position);
+  }
+
+  /** Adds {@code quantity} units of a product, merging into its existing line if there is one. */
+  public void addItem(Long productId, int quantity) {
+    int position = positionOf(productId);
+    if (position >= 0) {
+      BasketItem item = items.get(position);
+      item.setQuantity(item.getQuantity() + quantity);
+      return;
+    }
+    items.add(new BasketItem(productId, quantity));
+    itemIndex.put(productId, items.size() - 1, ABSENT);
+    indexedChanges = lines().changes();
+  }
+
+  /**
+   * Removes up to {@code quantity} units of a product and drops its line once it is empty. Lines
+   * keep their order, so dropping one re-indexes the lines after it.
+   *
+   * @return the number of units actually removed
+   */
+  public int removeItem(Long productId, int quantity) {
+    int position = positionOf(productId);
+    if (position < 0) {
+      return 0;
+    }
+    BasketItem item = items.get(position);
+    if (item.getQuantity() > quantity) {
+      item.setQuantity(item.getQuantity() - quantity);
+      return quantity;
+    }
+    items.remove(position);
+    itemIndex.remove(productId, ABSENT);
+    for (int i = position; i < items.size(); i++) {
+      itemIndex.put(items.get(i).getProductId(), i, ABSENT);
+    }
+    indexedChanges = lines().changes();
+    return item.getQuantity();
+  }
+
+  private int positionOf(Long productId) {
+    if (itemIndex == null || indexedItems != items || indexedChanges != lines().changes()) {
+      reindex();
+    }
+    return (int) itemIndex.get(productId, ABSENT);
+  }
+
+  private Lines lines() {
+    if (items == null) {
+      items = new Lines();
+    }
+    return (Lines) items;
+  }
+
+  private static boolean sameLines(List<BasketItem> stored, List<BasketItem> lines) {
+    // Hibernate's bag compares by identity, so compare line by line.
+    if (stored.size() != lines.size()) {
+      return false;
+    }
+    for (int i = 0; i < lines.size(); i++) {
+      if (!stored.get(i).equals(lines.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void reindex() {
+    Lines lines = lines();
+    itemIndex = new LongLongHashMap(lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      itemIndex.put(lines.get(i).getProductId(), i, ABSENT);
+    }
+    indexedItems = lines;
+    indexedChanges = lines.changes();
+  }
+
+  /**
+   * The list behind {@link #items}. Counts every structural change and every {@link #set}, which
+   * ArrayList's own count leaves out, so the index notices any direct edit of the list.
+   */
+  private static final class Lines extends ArrayList<BasketItem> {
+    private int replaced;
+
+    Lines() {}
+
+    Lines(Collection<BasketItem> items) {
+      super(items);
+    }
+
+    static Lines of(List<BasketItem> items) {
+      if (items == null) {
+        return null;
+      }
+      return items instanceof Lines lines ? lines : new Lines(items);
+    }
+
+    @Override
+    public BasketItem set(int index, BasketItem item) {
+      replaced++;
+      return super.set(index, item);
+    }
+
+    int changes() {
+      return modCount + replaced;
+    }
   }
 }
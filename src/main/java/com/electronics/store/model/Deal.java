@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = @Index(name = "idx_deal_expiration_date", columnList = "expiration_date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,10 +23,19 @@ public class Deal {
   @Enumerated(EnumType.STRING)
   private DealType dealType;
 
+  // startDate == null means the deal starts as soon as it is created
+  private LocalDateTime startDate;
+
   private LocalDateTime expirationDate;
 
+  public Deal(Long id, Long productId, DealType dealType, LocalDateTime expirationDate) {
+    this(id, productId, dealType, null, expirationDate);
+  }
+
   public boolean isActive() {
+    LocalDateTime now = LocalDateTime.now();
     // expirationDate == null means deal never expires
-    return expirationDate == null || expirationDate.isAfter(LocalDateTime.now());
+    return (startDate == null || !startDate.isAfter(now))
+        && (expirationDate == null || expirationDate.isAfter(now));
   }
 }
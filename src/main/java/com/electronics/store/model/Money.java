@@ -0,0 +1,99 @@
+package com.electronics.store.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a whole number of minor units (cents), so pricing runs on {@code
+ * long} arithmetic instead of allocating a {@link BigDecimal} per step. Anything that can produce
+ * a fraction of a cent takes an explicit {@link RoundingMode}, and overflow throws {@link
+ * ArithmeticException} rather than wrapping. Written to JSON as a decimal with two places.
+ */
+public final class Money implements Comparable<Money> {
+  public static final int SCALE = 2;
+  public static final Money ZERO = new Money(0);
+
+  private final long minorUnits;
+
+  private Money(long minorUnits) {
+    this.minorUnits = minorUnits;
+  }
+
+  public static Money ofMinor(long minorUnits) {
+    return minorUnits == 0 ? ZERO : new Money(minorUnits);
+  }
+
+  /** Converts {@code amount}, rounding anything below a cent with {@code roundingMode}. */
+  public static Money of(BigDecimal amount, RoundingMode roundingMode) {
+    return ofMinor(amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact());
+  }
+
+  public long minorUnits() {
+    return minorUnits;
+  }
+
+  public Money plus(Money other) {
+    return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money times(long factor) {
+    return ofMinor(Math.multiplyExact(minorUnits, factor));
+  }
+
+  /**
+   * Multiplies by {@code numerator / denominator}, rounding to a whole cent with {@code
+   * roundingMode}.
+   */
+  public Money times(long numerator, long denominator, RoundingMode roundingMode) {
+    if (denominator <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Denominator must be positive, was %s", denominator));
+    }
+    long product = Math.multiplyExact(minorUnits, numerator);
+    long quotient = product / denominator;
+    long remainder = Math.abs(product % denominator);
+    if (remainder == 0) {
+      return ofMinor(quotient);
+    }
+    // Sign of (remainder - half the denominator), without overflowing.
+    int aboveHalf = Long.compare(remainder, denominator - remainder);
+    boolean awayFromZero =
+        switch (roundingMode) {
+          case UP -> true;
+          case DOWN -> false;
+          case CEILING -> product > 0;
+          case FLOOR -> product < 0;
+          case HALF_UP -> aboveHalf >= 0;
+          case HALF_DOWN -> aboveHalf > 0;
+          case HALF_EVEN -> aboveHalf > 0 || (aboveHalf == 0 && (quotient & 1) != 0);
+          case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+    return ofMinor(awayFromZero ? quotient + Long.signum(product) : quotient);
+  }
+
+  @JsonValue
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Money money && money.minorUnits == minorUnits;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -7,14 +7,15 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Formula;
 
 @Entity
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,10 +34,32 @@ public class Product {
     @Min(value = 0, message = "Product stock must be positive")
     private int stock;
 
+  // Bumped by every write, including the bulk stock UPDATEs, so a stale copy can never be saved
+  // over a newer stock level.
+  @Version private Long version;
+
+  // Stock held in hot SKU buckets (see StockBuckets); zero unless the product has been split.
+  @Formula("(select coalesce(sum(b.stock), 0) from stock_bucket b where b.product_id = id)")
+  @Setter(AccessLevel.NONE)
+  private int bucketedStock;
+
+  public Product(
+      Long id, String name, ProductCategory category, BigDecimal price, int stock) {
+    this.id = id;
+    this.name = name;
+    this.category = category;
+    this.price = price;
+    this.stock = stock;
+  }
+
     public boolean isAvailable() {
-        return this.stock >0;
+        return getAvailableStock() > 0;
     }
 
+  public int getAvailableStock() {
+    return stock + bucketedStock;
+  }
+
   public void decrementStock(int quantity) {
     if (stock < quantity) {
       throw new InsufficientStockException(
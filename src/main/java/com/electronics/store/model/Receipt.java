@@ -1,6 +1,5 @@
 package com.electronics.store.model;
 
-import java.math.BigDecimal;
 import java.util.List;
 import lombok.Builder;
 import lombok.Value;
@@ -10,5 +9,5 @@ import lombok.Value;
 public class Receipt {
   List<ReceiptItem> items;
   List<String> dealsApplied;
-  BigDecimal totalPrice;
+  Money totalPrice;
 }
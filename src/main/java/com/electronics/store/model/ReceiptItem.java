@@ -1,6 +1,5 @@
 package com.electronics.store.model;
 
-import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
 
@@ -10,8 +9,8 @@ public class ReceiptItem {
     Long productId;
     String productName;
     ProductCategory category;
-    BigDecimal originalPrice;
+    Money originalPrice;
     int quantity;
-    BigDecimal priceAfterDeal;
+    Money priceAfterDeal;
     String dealApplied;
 }
@@ -0,0 +1,28 @@
+package com.electronics.store.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One slice of a hot product's stock; the product's available stock is its row plus all slices. */
+@Entity
+@Table(
+    name = "stock_bucket",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "bucket"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBucket {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private int bucket;
+
+  private int stock;
+}
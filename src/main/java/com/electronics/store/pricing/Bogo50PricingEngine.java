@@ -0,0 +1,29 @@
+package com.electronics.store.pricing;
+
+import com.electronics.store.model.DealType;
+import com.electronics.store.model.Money;
+import java.math.RoundingMode;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buy one, get the next one at half price: every second unit costs 50% of the unit price, with
+ * half cents rounded up.
+ */
+@Component
+public class Bogo50PricingEngine implements PricingEngine {
+  @Override
+  public DealType dealType() {
+    return DealType.BOGO50;
+  }
+
+  @Override
+  public Money priceAfterDeal(Money price) {
+    return price.times(1, 2, RoundingMode.HALF_UP);
+  }
+
+  @Override
+  public Money lineTotal(Money price, int quantity) {
+    int discounted = quantity / 2;
+    return price.times(quantity - discounted).plus(priceAfterDeal(price).times(discounted));
+  }
+}
@@ -0,0 +1,22 @@
+package com.electronics.store.pricing;
+
+import com.electronics.store.model.DealType;
+import com.electronics.store.model.Money;
+
+/**
+ * Prices basket lines that carry one kind of deal. Implementations are Spring beans and are picked
+ * up by {@link PricingEngines}, so a new deal type only needs a new engine.
+ *
+ * <p>Line totals must be computed in constant time, whatever the quantity.
+ */
+public interface PricingEngine {
+
+  /** The deal type this engine prices; at most one engine may claim each type. */
+  DealType dealType();
+
+  /** The discounted unit price shown on the receipt. */
+  Money priceAfterDeal(Money price);
+
+  /** The total for {@code quantity} units at the given undiscounted unit price. */
+  Money lineTotal(Money price, int quantity);
+}
@@ -0,0 +1,33 @@
+package com.electronics.store.pricing;
+
+import com.electronics.store.model.DealType;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+
+/** Every {@link PricingEngine} in the context, looked up by the deal type it prices. */
+@Component
+public class PricingEngines {
+  private final Map<DealType, PricingEngine> engines = new EnumMap<>(DealType.class);
+
+  public PricingEngines(List<PricingEngine> engines) {
+    for (PricingEngine engine : engines) {
+      PricingEngine existing = this.engines.putIfAbsent(engine.dealType(), engine);
+      if (existing != null) {
+        throw new IllegalStateException(
+            String.format(
+                "Both %s and %s price %s deals",
+                existing.getClass().getSimpleName(),
+                engine.getClass().getSimpleName(),
+                engine.dealType()));
+      }
+    }
+  }
+
+  /** The engine for {@code dealType}, or empty if no engine prices it. */
+  public Optional<PricingEngine> find(DealType dealType) {
+    return Optional.ofNullable(engines.get(dealType));
+  }
+}
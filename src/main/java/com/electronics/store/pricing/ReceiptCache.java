@@ -0,0 +1,67 @@
+package com.electronics.store.pricing;
+
+import com.electronics.store.model.Receipt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers each user's last receipt together with the versions it was priced from: the basket's
+ * id and version and the catalog's product and deal versions. A request whose versions all match
+ * gets the remembered receipt; once any of them moves the receipt is priced again and replaces it,
+ * so nothing has to be invalidated explicitly.
+ *
+ * <p>Holds at most {@code store.receipts.cache-size} users, dropping the least recently used.
+ */
+@Component
+public class ReceiptCache {
+  private final Counter hits;
+  private final Counter misses;
+  // Access-ordered, so the eldest entry is the least recently used. Guarded by itself.
+  private final Map<String, Entry> entries;
+
+  public ReceiptCache(
+      MeterRegistry meterRegistry, @Value("${store.receipts.cache-size:10000}") int maxEntries) {
+    this.hits = meterRegistry.counter("store.receipts.cache", "result", "hit");
+    this.misses = meterRegistry.counter("store.receipts.cache", "result", "miss");
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  /** Returns the receipt remembered for {@code userId} under {@code key}, or prices a new one. */
+  public Receipt get(String userId, Key key, Supplier<Receipt> pricing) {
+    synchronized (entries) {
+      Entry entry = entries.get(userId);
+      if (entry != null && entry.key.equals(key)) {
+        hits.increment();
+        return entry.receipt;
+      }
+    }
+    misses.increment();
+    Receipt receipt = pricing.get();
+    synchronized (entries) {
+      entries.put(userId, new Entry(key, receipt));
+    }
+    return receipt;
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /** The versions a receipt was priced from. */
+  public record Key(long basketId, long basketVersion, long productVersion, long dealVersion) {}
+
+  private record Entry(Key key, Receipt receipt) {}
+}
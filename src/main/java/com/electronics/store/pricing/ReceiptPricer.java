@@ -0,0 +1,85 @@
+package com.electronics.store.pricing;
+
+import com.electronics.store.catalog.DealIndex;
+import com.electronics.store.model.BasketItem;
+import com.electronics.store.model.Deal;
+import com.electronics.store.model.Money;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.Receipt;
+import com.electronics.store.model.ReceiptItem;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prices basket lines against products the caller has already loaded. Deals come from the
+ * in-memory {@link DealIndex} and each line is priced in constant time by the {@link
+ * PricingEngine} of its deal. Touches no database and holds no state, so it is safe to call from
+ * several threads at once.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReceiptPricer {
+  private final DealIndex dealIndex;
+  private final PricingEngines pricingEngines;
+
+  /** Prices {@code items}; {@code products} must hold every product they refer to. */
+  public Receipt price(List<BasketItem> items, Map<Long, Product> products) {
+    Totals totals = new Totals();
+    List<ReceiptItem> receiptItems = new ArrayList<>(items.size());
+    for (BasketItem item : items) {
+      receiptItems.add(priceLine(item, products.get(item.getProductId()), totals));
+    }
+
+    return Receipt.builder()
+        .items(List.copyOf(receiptItems))
+        .dealsApplied(List.copyOf(totals.dealsApplied))
+        .totalPrice(totals.totalPrice)
+        .build();
+  }
+
+  /** Prices one line of {@code product} and adds it to {@code totals}. */
+  public ReceiptItem priceLine(BasketItem item, Product product, Totals totals) {
+    // Receipts are priced in whole cents; a finer product price is rounded once, here.
+    Money price = Money.of(product.getPrice(), RoundingMode.HALF_UP);
+    ReceiptItem.ReceiptItemBuilder receiptItemBuilder =
+        ReceiptItem.builder()
+            .productId(product.getId())
+            .productName(product.getName())
+            .category(product.getCategory())
+            .originalPrice(price)
+            .quantity(item.getQuantity())
+            .priceAfterDeal(price);
+    Money lineTotal = price.times(item.getQuantity());
+    Deal deal = dealIndex.find(product.getId());
+    Optional<PricingEngine> pricingEngine =
+        deal != null ? pricingEngines.find(deal.getDealType()) : Optional.empty();
+    if (pricingEngine.isPresent()) {
+      PricingEngine engine = pricingEngine.get();
+      receiptItemBuilder.priceAfterDeal(engine.priceAfterDeal(price));
+      receiptItemBuilder.dealApplied(deal.getDealType().toString());
+      totals.dealsApplied.add(String.format("%s for %s", deal.getDealType(), product.getName()));
+      lineTotal = engine.lineTotal(price, item.getQuantity());
+    }
+    totals.totalPrice = totals.totalPrice.plus(lineTotal);
+    return receiptItemBuilder.build();
+  }
+
+  /** The running total and deals applied of a receipt priced one line at a time. */
+  public static final class Totals {
+    private final List<String> dealsApplied = new ArrayList<>();
+    private Money totalPrice = Money.ZERO;
+
+    public List<String> dealsApplied() {
+      return List.copyOf(dealsApplied);
+    }
+
+    public Money totalPrice() {
+      return totalPrice;
+    }
+  }
+}
@@ -1,13 +1,24 @@
 package com.electronics.store.repository;
 
 import com.electronics.store.model.Basket;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface BasketRepository
     extends JpaRepository<Basket, Long>, JpaSpecificationExecutor<Basket> {
   Optional<Basket> findByUserId(String userId);
+
+  @Query(
+      "select distinct b.id from Basket b join b.collectionItems i where b.encodedItems is null")
+  List<Long> findIdsStoredAsCollection(Pageable pageable);
+
+  @Query("select b.id from Basket b where b.lastModified < :cutoff order by b.lastModified")
+  List<Long> findIdleBasketIds(Instant cutoff, Pageable pageable);
 }
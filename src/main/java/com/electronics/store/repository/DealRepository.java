@@ -1,14 +1,19 @@
 package com.electronics.store.repository;
 
 import com.electronics.store.model.Deal;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface DealRepository extends JpaRepository<Deal, Long>, JpaSpecificationExecutor<Deal> {
   //    List<Deal> productId(Long productId);
 
-  Optional<Deal> findByProductId(Long id);
+  /** Deals that are active or scheduled to start, i.e. all deals that have not expired. */
+  @Query("select d from Deal d where d.expirationDate is null or d.expirationDate > :now")
+  List<Deal> findUnexpired(@Param("now") LocalDateTime now);
 }
@@ -1,10 +1,54 @@
 package com.electronics.store.repository;
 
 import com.electronics.store.model.Product;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository
-    extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {}
+    extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+  // Conditional decrement: the stock check and the write happen in one statement, so concurrent
+  // callers (on this node or any other) can never drive stock below zero.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update Product p set p.stock = p.stock - :quantity, p.version = p.version + 1"
+          + " where p.id = :productId and p.stock >= :quantity")
+  int decrementStockIfAvailable(
+      @Param("productId") Long productId, @Param("quantity") int quantity);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update Product p set p.stock = p.stock + :quantity, p.version = p.version + 1"
+          + " where p.id = :productId")
+  int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update Product p set p.stock = :stock, p.version = p.version + 1 where p.id = :productId")
+  int setStock(@Param("productId") Long productId, @Param("stock") int stock);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select p from Product p where p.id = :productId")
+  Optional<Product> lockById(@Param("productId") Long productId);
+
+  // A constructor expression, so the products come back unmanaged and are not held by the
+  // persistence context; bucketed stock is not loaded.
+  @Query(
+      "select new com.electronics.store.model.Product(p.id, p.name, p.category, p.price, p.stock)"
+          + " from Product p where p.id in :ids")
+  List<Product> findUnmanagedByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query("select p.id from Product p where p.id in :ids")
+  Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
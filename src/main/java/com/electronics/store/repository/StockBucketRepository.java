@@ -0,0 +1,52 @@
+package com.electronics.store.repository;
+
+import com.electronics.store.model.StockBucket;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+
+  // Same conditional decrement as ProductRepository, scoped to a single bucket row.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update StockBucket b set b.stock = b.stock - :quantity"
+          + " where b.productId = :productId and b.bucket = :bucket and b.stock >= :quantity")
+  int takeIfAvailable(
+      @Param("productId") Long productId,
+      @Param("bucket") int bucket,
+      @Param("quantity") int quantity);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update StockBucket b set b.stock = b.stock + :quantity"
+          + " where b.productId = :productId and b.bucket = :bucket")
+  int put(
+      @Param("productId") Long productId,
+      @Param("bucket") int bucket,
+      @Param("quantity") int quantity);
+
+  List<StockBucket> findByProductIdAndStockGreaterThanOrderByBucket(Long productId, int stock);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select b from StockBucket b where b.productId = :productId order by b.bucket")
+  List<StockBucket> lockByProductId(@Param("productId") Long productId);
+
+  @Query("select b.productId, count(b) from StockBucket b group by b.productId")
+  List<Object[]> countByProduct();
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update StockBucket b set b.stock = 0 where b.productId in :productIds")
+  int clearStock(@Param("productIds") Collection<Long> productIds);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from StockBucket b where b.productId = :productId")
+  int deleteByProductId(@Param("productId") Long productId);
+}
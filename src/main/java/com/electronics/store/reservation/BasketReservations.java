@@ -0,0 +1,119 @@
+package com.electronics.store.reservation;
+
+import com.electronics.store.reservation.HierarchicalTimingWheel.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how much stock each basket line holds and when that hold runs out. Every add refreshes
+ * the line's deadline to now + TTL; lines that are not touched for a full TTL come due in {@link
+ * #expire()} and their stock can be returned to inventory.
+ */
+@Component
+public class BasketReservations {
+  private final Clock clock;
+  private final Duration ttl;
+  private final Duration retryDelay;
+  private final HierarchicalTimingWheel<Reservation> wheel;
+  private final Map<ReservationKey, Timer<Reservation>> timers = new HashMap<>();
+
+  public BasketReservations(
+      Clock clock,
+      @Value("${store.reservations.ttl:30m}") Duration ttl,
+      @Value("${store.reservations.retry-delay:10s}") Duration retryDelay,
+      @Value("${store.reservations.tick-ms:1000}") long tickMillis) {
+    this.clock = clock;
+    this.ttl = ttl;
+    this.retryDelay = retryDelay;
+    this.wheel = new HierarchicalTimingWheel<>(tickMillis, clock.millis());
+  }
+
+  public synchronized void hold(String userId, Long productId, int quantity) {
+    ReservationKey key = new ReservationKey(userId, productId);
+    long deadline = clock.millis() + ttl.toMillis();
+    Timer<Reservation> timer = timers.get(key);
+    if (timer == null) {
+      timers.put(key, wheel.schedule(new Reservation(userId, productId, quantity), deadline));
+    } else {
+      timer.getPayload().quantity += quantity;
+      wheel.reschedule(timer, deadline);
+    }
+  }
+
+  /**
+   * Puts back reservations that {@link #expire()} handed out but whose stock could not be
+   * returned, due again after {@code store.reservations.retry-delay}. A line held again in the
+   * meantime takes the units on and keeps its own deadline.
+   */
+  public synchronized void retry(List<Reservation> reservations) {
+    long deadline = clock.millis() + retryDelay.toMillis();
+    for (Reservation reservation : reservations) {
+      ReservationKey key = new ReservationKey(reservation.userId, reservation.productId);
+      Timer<Reservation> timer = timers.get(key);
+      if (timer == null) {
+        timers.put(key, wheel.schedule(reservation, deadline));
+      } else {
+        timer.getPayload().quantity += reservation.quantity;
+      }
+    }
+  }
+
+  public synchronized void release(String userId, Long productId, int quantity) {
+    ReservationKey key = new ReservationKey(userId, productId);
+    Timer<Reservation> timer = timers.get(key);
+    if (timer == null) {
+      return;
+    }
+    Reservation reservation = timer.getPayload();
+    reservation.quantity -= quantity;
+    if (reservation.quantity <= 0) {
+      wheel.cancel(timer);
+      timers.remove(key);
+    }
+  }
+
+  /** Removes and returns every reservation whose deadline has passed. */
+  public synchronized List<Reservation> expire() {
+    List<Reservation> expired = new ArrayList<>();
+    wheel.advanceTo(
+        clock.millis(),
+        reservation -> {
+          timers.remove(new ReservationKey(reservation.userId, reservation.productId));
+          expired.add(reservation);
+        });
+    return expired;
+  }
+
+  public synchronized int size() {
+    return wheel.size();
+  }
+
+  @Getter
+  public static final class Reservation {
+    private final String userId;
+    private final Long productId;
+    private int quantity;
+
+    Reservation(String userId, Long productId, int quantity) {
+      this.userId = userId;
+      this.productId = productId;
+      this.quantity = quantity;
+    }
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static final class ReservationKey {
+    private final String userId;
+    private final Long productId;
+  }
+}
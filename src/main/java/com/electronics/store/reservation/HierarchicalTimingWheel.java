@@ -0,0 +1,155 @@
+package com.electronics.store.reservation;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each level 64 times coarser than the one
+ * below. Scheduling and cancelling are O(1); advancing costs O(1) per tick plus the timers that
+ * expire or cascade down a level. With one-second ticks the wheel spans about 194 days; timers
+ * beyond that are parked in the top level and re-placed when their slot comes round.
+ *
+ * <p>Not thread-safe; callers guard access.
+ */
+public class HierarchicalTimingWheel<T> {
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int LEVELS = 4;
+  private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+  private final long tickMillis;
+  private final long originMillis;
+  private final Timer<T>[][] slots;
+  private long currentTick;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  public HierarchicalTimingWheel(long tickMillis, long originMillis) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+    }
+    this.tickMillis = tickMillis;
+    this.originMillis = originMillis;
+    this.slots = new Timer[LEVELS][SLOTS];
+    for (int level = 0; level < LEVELS; level++) {
+      for (int slot = 0; slot < SLOTS; slot++) {
+        Timer<T> sentinel = new Timer<>(null, 0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        slots[level][slot] = sentinel;
+      }
+    }
+  }
+
+  public Timer<T> schedule(T payload, long deadlineMillis) {
+    Timer<T> timer = new Timer<>(payload, toTick(deadlineMillis));
+    place(timer);
+    size++;
+    return timer;
+  }
+
+  public void reschedule(Timer<T> timer, long deadlineMillis) {
+    if (timer.isScheduled()) {
+      unlink(timer);
+      size--;
+    }
+    timer.deadlineTick = toTick(deadlineMillis);
+    place(timer);
+    size++;
+  }
+
+  public boolean cancel(Timer<T> timer) {
+    if (!timer.isScheduled()) {
+      return false;
+    }
+    unlink(timer);
+    size--;
+    return true;
+  }
+
+  /** Advances the wheel to {@code nowMillis} and hands every timer that came due to {@code expired}. */
+  public void advanceTo(long nowMillis, Consumer<T> expired) {
+    long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+    while (currentTick < targetTick) {
+      currentTick++;
+      for (int level = LEVELS - 1; level >= 1; level--) {
+        if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+          cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        }
+      }
+      Timer<T> sentinel = slots[0][(int) currentTick & SLOT_MASK];
+      while (sentinel.next != sentinel) {
+        Timer<T> timer = sentinel.next;
+        unlink(timer);
+        if (timer.deadlineTick <= currentTick) {
+          size--;
+          expired.accept(timer.payload);
+        } else {
+          place(timer);
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void cascade(int level, int slot) {
+    Timer<T> sentinel = slots[level][slot];
+    while (sentinel.next != sentinel) {
+      Timer<T> timer = sentinel.next;
+      unlink(timer);
+      place(timer);
+    }
+  }
+
+  private void place(Timer<T> timer) {
+    // Timers already due fire on the next tick.
+    long deadline = Math.max(timer.deadlineTick, currentTick + 1);
+    long delta = Math.min(deadline - currentTick, MAX_SPAN - 1);
+    deadline = currentTick + delta;
+    int level = 0;
+    while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    int slot = (int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+    Timer<T> sentinel = slots[level][slot];
+    timer.prev = sentinel.prev;
+    timer.next = sentinel;
+    sentinel.prev.next = timer;
+    sentinel.prev = timer;
+  }
+
+  private void unlink(Timer<T> timer) {
+    timer.prev.next = timer.next;
+    timer.next.prev = timer.prev;
+    timer.prev = null;
+    timer.next = null;
+  }
+
+  private long toTick(long deadlineMillis) {
+    // Round up so a timer never fires before its deadline.
+    return Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis);
+  }
+
+  public static final class Timer<T> {
+    private final T payload;
+    private long deadlineTick;
+    private Timer<T> prev;
+    private Timer<T> next;
+
+    private Timer(T payload, long deadlineTick) {
+      this.payload = payload;
+      this.deadlineTick = deadlineTick;
+    }
+
+    public T getPayload() {
+      return payload;
+    }
+
+    public boolean isScheduled() {
+      return next != null;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.electronics.store.reservation;
+
+import com.electronics.store.basket.BasketStore;
+import com.electronics.store.concurrency.OptimisticRetry;
+import com.electronics.store.ledger.StockMovement;
+import com.electronics.store.model.Basket;
+import com.electronics.store.reservation.BasketReservations.Reservation;
+import com.electronics.store.service.ProductService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Drops expired reservations from their baskets and returns the stock in one batch per tick. If
+ * the batch fails, its reservations are scheduled again to be retried shortly.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationSweeper {
+  private final BasketReservations basketReservations;
+  private final BasketStore basketStore;
+  private final ProductService productService;
+  private final TransactionOperations transactionOperations;
+  private final OptimisticRetry optimisticRetry;
+
+  @Scheduled(fixedDelayString = "${store.reservations.tick-ms:1000}")
+  public void sweep() {
+    List<Reservation> expired = basketReservations.expire();
+    if (expired.isEmpty()) {
+      return;
+    }
+    Map<String, List<Reservation>> expiredByUser =
+        expired.stream().collect(Collectors.groupingBy(Reservation::getUserId));
+    try {
+      Map<Long, Integer> returnedStock =
+          optimisticRetry.execute(
+              "reservation.sweep",
+              () -> transactionOperations.execute(status -> dropLines(expiredByUser)));
+      log.info(
+          "Expired {} basket reservations, returned stock for {} products",
+          expired.size(),
+          returnedStock.size());
+    } catch (RuntimeException e) {
+      log.error(
+          "Could not return stock for {} expired reservations, retrying later", expired.size(), e);
+      basketReservations.retry(expired);
+    }
+  }
+
+  private Map<Long, Integer> dropLines(Map<String, List<Reservation>> expiredByUser) {
+    Map<Long, Integer> returnedStock = new HashMap<>();
+    List<Basket> changedBaskets = new ArrayList<>();
+    expiredByUser.forEach(
+        (userId, reservations) ->
+            basketStore
+                .find(userId)
+                .ifPresent(
+                    basket -> {
+                      reservations.forEach(
+                          reservation -> dropLine(basket, reservation, returnedStock));
+                      changedBaskets.add(basket);
+                    }));
+    basketStore.saveAll(changedBaskets);
+    productService.releaseStock(returnedStock, StockMovement.RESERVATION_EXPIRED);
+    return returnedStock;
+  }
+
+  private void dropLine(Basket basket, Reservation reservation, Map<Long, Integer> returnedStock) {
+    // A line re-added after the reservation expired keeps its newer units.
+    int returned = basket.removeItem(reservation.getProductId(), reservation.getQuantity());
+    if (returned > 0) {
+      returnedStock.merge(reservation.getProductId(), returned, Integer::sum);
+    }
+  }
+}
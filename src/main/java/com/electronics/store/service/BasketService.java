@@ -1,117 +1,234 @@
 package com.electronics.store.service;
 
+import com.electronics.store.basket.BasketStore;
+import com.electronics.store.catalog.CatalogVersions;
+import com.electronics.store.concurrency.OptimisticRetry;
+import com.electronics.store.concurrency.UserMailboxes;
+import com.electronics.store.dto.BasketOperation;
+import com.electronics.store.dto.BasketOperationType;
+import com.electronics.store.exception.ProductNotFoundException;
 import com.electronics.store.model.Basket;
 import com.electronics.store.model.BasketItem;
-import com.electronics.store.model.Deal;
-import com.electronics.store.model.DealType;
 import com.electronics.store.model.Product;
 import com.electronics.store.model.Receipt;
 import com.electronics.store.model.ReceiptItem;
-import com.electronics.store.repository.BasketRepository;
-import com.electronics.store.repository.DealRepository;
-import java.math.BigDecimal;
+import com.electronics.store.pricing.ReceiptCache;
+import com.electronics.store.pricing.ReceiptPricer;
+import com.electronics.store.reservation.BasketReservations;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+/**
+ * Basket operations for the authenticated user. Mutations of one user's basket run one at a time
+ * through {@link UserMailboxes}, so double-clicks and parallel tabs queue up instead of racing on
+ * the same basket; different users run in parallel. Optimistic retry stays in place for the
+ * background jobs that also touch baskets.
+ */
 @Service
 @RequiredArgsConstructor
 public class BasketService {
-    private final BasketRepository basketRepository;
-  private final DealRepository dealRepository;
+  private static final int RECEIPT_CHUNK_SIZE = 500;
+
+  private final BasketStore basketStore;
   private final ProductService productService;
+  private final BasketReservations basketReservations;
+  private final OptimisticRetry optimisticRetry;
+  private final TransactionOperations transactionOperations;
+  private final UserMailboxes basketMailboxes;
+  private final CatalogVersions catalogVersions;
+  private final ReceiptPricer receiptPricer;
+  private final ReceiptCache receiptCache;
 
   public Basket addProductToBasket(Long productId, int quantity) {
+    return basketMailboxes.run(
+        currentUserId(),
+        () -> {
+          Basket savedBasket =
+              optimisticRetry.execute(
+                  "basket.add",
+                  () -> transactionOperations.execute(status -> addToBasket(productId, quantity)));
+          basketReservations.hold(savedBasket.getUserId(), productId, quantity);
+          return savedBasket;
+        });
+  }
+
+  private Basket addToBasket(Long productId, int quantity) {
     Basket basket = getOrCreateBasket();
     productService.decrementProductStock(productId, quantity);
-    Optional<BasketItem> existingBasket =
-        basket.getItems().stream()
-            .filter(item -> item.getProductId().equals(productId))
-            .findFirst();
-    if (existingBasket.isPresent()) {
-      existingBasket.get().setQuantity(existingBasket.get().getQuantity() + quantity);
-    } else {
-      basket.getItems().add(new BasketItem(productId, quantity));
-    }
-    return basketRepository.save(basket);
+    basket.addItem(productId, quantity);
+    return basketStore.save(basket);
   }
 
   public Basket getOrCreateBasket() {
+    return basketStore.getOrCreate(currentUserId());
+  }
+
+  private String currentUserId() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     if (authentication == null || !authentication.isAuthenticated()) {
       throw new IllegalStateException("Authentication required");
     }
-    String userId = authentication.getName();
-
-    return basketRepository
-        .findByUserId(userId)
-        .orElseGet(() -> basketRepository.save(new Basket(userId)));
+    return authentication.getName();
   }
 
   public Basket removeProductFromBasket(Long productId, int quantity) {
+    return basketMailboxes.run(
+        currentUserId(),
+        () -> {
+          Basket savedBasket =
+              optimisticRetry.execute(
+                  "basket.remove",
+                  () ->
+                      transactionOperations.execute(
+                          status -> removeFromBasket(productId, quantity)));
+          basketReservations.release(savedBasket.getUserId(), productId, quantity);
+          return savedBasket;
+        });
+  }
+
+  private Basket removeFromBasket(Long productId, int quantity) {
     Basket basket = getOrCreateBasket();
     productService.incrementProductStock(productId, quantity);
-    Optional<BasketItem> existingBasketItem =
-        basket.getItems().stream()
-            .filter(item -> item.getProductId().equals(productId))
-            .findFirst();
-    if (existingBasketItem.isPresent()) {
-      if (existingBasketItem.get().getQuantity() <= quantity) {
-        basket.getItems().remove(existingBasketItem.get());
-      } else {
-        existingBasketItem.get().setQuantity(existingBasketItem.get().getQuantity() - quantity);
+    basket.removeItem(productId, quantity);
+    return basketStore.save(basket);
+  }
+
+  /**
+   * Applies a list of add and remove operations as one unit: either all of them or, if any
+   * product lacks stock or does not exist, none. Operations are netted per product first, so
+   * stock changes once per product, in ascending product id order. Concurrent batches over
+   * overlapping products therefore take their row locks in the same order and cannot deadlock.
+   * The basket is saved once.
+   */
+  public Basket updateBasket(List<BasketOperation> operations) {
+    return basketMailboxes.run(currentUserId(), () -> applyBatch(operations));
+  }
+
+  private Basket applyBatch(List<BasketOperation> operations) {
+    BasketUpdate update =
+        optimisticRetry.execute(
+            "basket.batch",
+            () -> transactionOperations.execute(status -> applyOperations(operations)));
+    String userId = update.getBasket().getUserId();
+    update
+        .getStockChanges()
+        .forEach(
+            (productId, change) -> {
+              if (change > 0) {
+                basketReservations.hold(userId, productId, change);
+              } else if (change < 0) {
+                basketReservations.release(userId, productId, -change);
+              }
+            });
+    return update.getBasket();
+  }
+
+  private BasketUpdate applyOperations(List<BasketOperation> operations) {
+    Basket basket = getOrCreateBasket();
+    Map<Long, Integer> stockChanges = new TreeMap<>();
+    for (BasketOperation operation : operations) {
+      Long productId = operation.getProductId();
+      int change =
+          operation.getType() == BasketOperationType.ADD
+              ? operation.getQuantity()
+              : -basket.removeItem(productId, operation.getQuantity());
+      if (change > 0) {
+        basket.addItem(productId, change);
       }
+      stockChanges.merge(productId, change, Integer::sum);
     }
-    return basketRepository.save(basket);
+    stockChanges.forEach(
+        (productId, change) -> {
+          if (change > 0) {
+            productService.decrementProductStock(productId, change);
+          } else if (change < 0) {
+            productService.incrementProductStock(productId, -change);
+          }
+        });
+    return new BasketUpdate(basketStore.save(basket), stockChanges);
   }
 
   public Receipt calculateReceipt() {
-    Basket basket = getOrCreateBasket();
-    List<ReceiptItem> receiptItems = new ArrayList<>();
-    List<String> dealsApplied = new ArrayList<>();
-    BigDecimal totalPrice = BigDecimal.ZERO;
-    for (int receiptItemNumber = 0;
-        receiptItemNumber < basket.getItems().size();
-        receiptItemNumber++) {
-      BasketItem item = basket.getItems().get(receiptItemNumber);
-      Product product = productService.findProductById(item.getProductId());
-      ReceiptItem.ReceiptItemBuilder receiptItemBuilder =
-          ReceiptItem.builder()
-              .productId(product.getId())
-              .productName(product.getName())
-              .category(product.getCategory())
-              .originalPrice(product.getPrice())
-              .quantity(item.getQuantity())
-              .priceAfterDeal(product.getPrice());
-      Optional<Deal> dealOptional = dealRepository.findByProductId(product.getId());
-      if (dealOptional.isPresent()) {
-        Deal deal = dealOptional.get();
-        if (DealType.BOGO50.equals(deal.getDealType()) && deal.isActive()) {
-            receiptItemBuilder.priceAfterDeal(product.getPrice().multiply(BigDecimal.valueOf(0.5)));
-            receiptItemBuilder.dealApplied(DealType.BOGO50.toString());
-          dealsApplied.add(
-              String.format("%s for %s", DealType.BOGO50.toString(), product.getName()));
-        }
-      }
-      ReceiptItem receiptItem = receiptItemBuilder.build();
-      for (int i = 0; i < receiptItem.getQuantity(); i++) {
-        if (i % 2 == 1) {
-          totalPrice = totalPrice.add(receiptItem.getPriceAfterDeal());
-        } else {
-          totalPrice = totalPrice.add(receiptItem.getOriginalPrice());
-        }
+    return calculateReceipt(getOrCreateBasket());
+  }
+
+  /**
+   * Prices the basket, or returns the receipt cached for it if neither the basket nor the catalog
+   * changed since. A basket that was never saved has no version and is always priced.
+   */
+  public Receipt calculateReceipt(Basket basket) {
+    if (basket.getId() == null || basket.getVersion() == null) {
+      return priceBasket(basket);
+    }
+    // Read the catalog versions before loading any product or deal, as for the receipt ETag.
+    ReceiptCache.Key key =
+        new ReceiptCache.Key(
+            basket.getId(),
+            basket.getVersion(),
+            catalogVersions.productVersion(),
+            catalogVersions.dealVersion());
+    return receiptCache.get(basket.getUserId(), key, () -> priceBasket(basket));
+  }
+
+  /**
+   * Prices the basket with one query for its products whatever its size; deals and line pricing
+   * come from the {@link ReceiptPricer}.
+   */
+  private Receipt priceBasket(Basket basket) {
+    List<Long> productIds = basket.getItems().stream().map(BasketItem::getProductId).toList();
+    return receiptPricer.price(basket.getItems(), productService.findProductsById(productIds));
+  }
+
+  /**
+   * Prices the basket {@value #RECEIPT_CHUNK_SIZE} lines at a time, loading only that chunk's
+   * products, unmanaged, and handing its priced lines to {@code chunks} before moving on, so memory
+   * stays flat however large the basket is. Every product is checked to exist before the first
+   * chunk is handed over, so a missing one fails the request before anything is written. Returns
+   * the totals once every line has been handed over. Bypasses the receipt cache, which would hold
+   * the whole receipt.
+   *
+   * @throws ProductNotFoundException if a product of the basket does not exist
+   */
+  public ReceiptPricer.Totals streamReceipt(Basket basket, Consumer<List<ReceiptItem>> chunks) {
+    List<BasketItem> items = basket.getItems();
+    for (int from = 0; from < items.size(); from += RECEIPT_CHUNK_SIZE) {
+      productService.checkProductsExist(productIds(items, from));
+    }
+    ReceiptPricer.Totals totals = new ReceiptPricer.Totals();
+    for (int from = 0; from < items.size(); from += RECEIPT_CHUNK_SIZE) {
+      Map<Long, Product> products =
+          productService.findUnmanagedProductsById(productIds(items, from));
+      List<ReceiptItem> receiptItems = new ArrayList<>(RECEIPT_CHUNK_SIZE);
+      for (BasketItem item : items.subList(from, chunkEnd(items, from))) {
+        receiptItems.add(receiptPricer.priceLine(item, products.get(item.getProductId()), totals));
       }
-      receiptItems.add(receiptItem);
+      chunks.accept(receiptItems);
     }
+    return totals;
+  }
+
+  private static List<Long> productIds(List<BasketItem> items, int from) {
+    return items.subList(from, chunkEnd(items, from)).stream()
+        .map(BasketItem::getProductId)
+        .toList();
+  }
+
+  private static int chunkEnd(List<BasketItem> items, int from) {
+    return Math.min(from + RECEIPT_CHUNK_SIZE, items.size());
+  }
 
-    return Receipt.builder()
-        .items(receiptItems)
-        .dealsApplied(dealsApplied)
-        .totalPrice(totalPrice)
-        .build();
+  @Value
+  private static class BasketUpdate {
+    Basket basket;
+    Map<Long, Integer> stockChanges;
   }
 }
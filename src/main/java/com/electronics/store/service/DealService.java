@@ -1,5 +1,7 @@
 package com.electronics.store.service;
 
+import com.electronics.store.catalog.DealIndex;
+import com.electronics.store.exception.MalformedRequestException;
 import com.electronics.store.exception.ProductNotFoundException;
 import com.electronics.store.model.Deal;
 import com.electronics.store.repository.DealRepository;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Service;
 public class DealService {
   private final DealRepository dealRepository;
   private final ProductRepository productRepository;
+  private final DealIndex dealIndex;
 
   public Deal createDeal(Deal deal) {
     Long productId = deal.getProductId();
@@ -19,6 +22,16 @@ public class DealService {
       throw new ProductNotFoundException(
           String.format("Product with id: %s does not exist", productId));
     }
-    return dealRepository.save(deal);
+    if (deal.getStartDate() != null
+        && deal.getExpirationDate() != null
+        && !deal.getStartDate().isBefore(deal.getExpirationDate())) {
+      throw new MalformedRequestException(
+          String.format(
+              "Deal must start before it expires, got start %s and expiration %s",
+              deal.getStartDate(), deal.getExpirationDate()));
+    }
+    Deal createdDeal = dealRepository.save(deal);
+    dealIndex.add(createdDeal);
+    return createdDeal;
   }
 }
@@ -1,11 +1,21 @@
 package com.electronics.store.service;
 
+import com.electronics.store.availability.StockAvailabilityFeed;
+import com.electronics.store.catalog.CatalogVersions;
 import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.inventory.InventoryEngine;
+import com.electronics.store.ledger.StockLedger;
+import com.electronics.store.ledger.StockMovement;
 import com.electronics.store.model.Product;
 import com.electronics.store.model.ProductCategory;
 import com.electronics.store.repository.ProductRepository;
 import java.math.BigDecimal;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,14 +26,21 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ProductService {
   private final ProductRepository productRepository;
-  private final ConcurrentHashMap<Long, Object> productsLock = new ConcurrentHashMap<>();
+  private final InventoryEngine inventoryEngine;
+  private final StockLedger stockLedger;
+  private final StockAvailabilityFeed stockAvailabilityFeed;
+  private final CatalogVersions catalogVersions;
 
   public Page<Product> getAllProducts(Pageable pageable) {
     return productRepository.findAll(pageable);
   }
 
   public Product createProduct(Product product) {
-    return productRepository.save(product);
+    Product createdProduct = productRepository.save(product);
+    stockLedger.record(
+        StockMovement.PRODUCT_CREATED, createdProduct.getId(), createdProduct.getStock());
+    stockAvailabilityFeed.publish(createdProduct.getId());
+    return createdProduct;
   }
 
   public void removeProduct(Long productId) {
@@ -31,6 +48,10 @@ public class ProductService {
       throw new ProductNotFoundException(String.format("Product with ID %s not found.", productId));
     }
     productRepository.deleteById(productId);
+    inventoryEngine.evict(productId);
+    stockLedger.record(StockMovement.PRODUCT_DELETED, productId, 0);
+    stockAvailabilityFeed.publish(productId);
+    catalogVersions.productChanged();
   }
 
   public Page<Product> filterProducts(
@@ -67,7 +88,10 @@ public class ProductService {
       spec =
           spec.and(
               ((root, query, criteriaBuilder) ->
-                  criteriaBuilder.greaterThan(root.get("stock"), 0)));
+                  criteriaBuilder.greaterThan(
+                      criteriaBuilder.sum(
+                          root.<Integer>get("stock"), root.<Integer>get("bucketedStock")),
+                      0)));
     }
     return productRepository.findAll(spec, pageable);
   }
@@ -81,21 +105,88 @@ public class ProductService {
                     String.format("Product with ID %s not found.", productId)));
   }
 
-  public void decrementProductStock(Long productId, int quantity) {
-    Product product = findProductById(productId);
-    productsLock.putIfAbsent(productId, new Object());
-    synchronized (productsLock.get(productId)) {
-      product.decrementStock(quantity);
-      productRepository.save(product);
+  /**
+   * Loads the given products with a single query, keyed by id.
+   *
+   * @throws ProductNotFoundException for the first id that does not exist
+   */
+  public Map<Long, Product> findProductsById(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return Map.of();
+    }
+    return byId(productIds, productRepository.findAllById(productIds));
+  }
+
+  /**
+   * Like {@link #findProductsById}, but the products are not managed, so a long read that loads
+   * many batches does not keep them all in the persistence context. Not for products to be changed.
+   */
+  public Map<Long, Product> findUnmanagedProductsById(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return Map.of();
+    }
+    return byId(productIds, productRepository.findUnmanagedByIdIn(productIds));
+  }
+
+  /**
+   * Checks that the given products exist, with a single query that loads only their ids.
+   *
+   * @throws ProductNotFoundException for the first id that does not exist
+   */
+  public void checkProductsExist(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return;
+    }
+    Set<Long> existing = productRepository.findExistingIds(productIds);
+    for (Long productId : productIds) {
+      if (!existing.contains(productId)) {
+        throw productNotFound(productId);
+      }
+    }
+  }
+
+  private static Map<Long, Product> byId(Collection<Long> productIds, List<Product> found) {
+    Map<Long, Product> products =
+        found.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+    for (Long productId : productIds) {
+      if (!products.containsKey(productId)) {
+        throw productNotFound(productId);
+      }
     }
+    return products;
+  }
+
+  private static ProductNotFoundException productNotFound(Long productId) {
+    return new ProductNotFoundException(String.format("Product with ID %s not found.", productId));
+  }
+
+  public void decrementProductStock(Long productId, int quantity) {
+    inventoryEngine.reserve(productId, quantity);
+    stockLedger.record(StockMovement.BASKET_RESERVED, productId, -quantity);
+    stockAvailabilityFeed.publish(productId);
   }
 
   public void incrementProductStock(Long productId, int quantity) {
-    Product product = findProductById(productId);
-    productsLock.putIfAbsent(productId, new Object());
-    synchronized (productsLock.get(productId)) {
-      product.incrementStock(quantity);
-      productRepository.save(product);
+    inventoryEngine.release(productId, quantity);
+    stockLedger.record(StockMovement.BASKET_RELEASED, productId, quantity);
+    stockAvailabilityFeed.publish(productId);
+  }
+
+  public Product splitStock(Long productId, int buckets) {
+    inventoryEngine.split(productId, buckets);
+    stockAvailabilityFeed.publish(productId);
+    return findProductById(productId);
+  }
+
+  /** Puts stock held by baskets back in one batch, recording it as {@code movement}. */
+  public void releaseStock(Map<Long, Integer> quantities, StockMovement movement) {
+    if (!quantities.isEmpty()) {
+      inventoryEngine.releaseAll(quantities);
+      quantities.forEach(
+          (productId, quantity) -> {
+            stockLedger.record(movement, productId, quantity);
+            stockAvailabilityFeed.publish(productId);
+          });
     }
   }
 }
@@ -0,0 +1,63 @@
+package com.electronics.store.service;
+
+import com.electronics.store.dto.QuoteBasket;
+import com.electronics.store.dto.QuoteItem;
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.model.BasketItem;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.Receipt;
+import com.electronics.store.pricing.ReceiptPricer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Prices hypothetical baskets for anyone, with no user, stored basket or stock involved. The
+ * products of all baskets are loaded up front, {@value #PRODUCT_CHUNK_SIZE} ids per query, and
+ * nothing is written. The baskets are priced one after another on the request thread, so a large
+ * quote cannot take cores from other requests.
+ */
+@Service
+@RequiredArgsConstructor
+public class QuoteService {
+  private static final int PRODUCT_CHUNK_SIZE = 500;
+
+  private final ProductService productService;
+  private final ReceiptPricer receiptPricer;
+
+  /**
+   * Prices each basket as a receipt, in request order.
+   *
+   * @throws ProductNotFoundException if any basket refers to a product that does not exist
+   */
+  public List<Receipt> quote(List<QuoteBasket> baskets) {
+    List<List<BasketItem>> basketItems = baskets.stream().map(QuoteService::toItems).toList();
+    Set<Long> uniqueIds = new LinkedHashSet<>();
+    basketItems.forEach(items -> items.forEach(item -> uniqueIds.add(item.getProductId())));
+    List<Long> productIds = new ArrayList<>(uniqueIds);
+    Map<Long, Product> products = new HashMap<>();
+    for (int from = 0; from < productIds.size(); from += PRODUCT_CHUNK_SIZE) {
+      products.putAll(
+          productService.findUnmanagedProductsById(
+              productIds.subList(from, Math.min(from + PRODUCT_CHUNK_SIZE, productIds.size()))));
+    }
+    return basketItems.stream().map(items -> receiptPricer.price(items, products)).toList();
+  }
+
+  // A product listed twice counts once with both quantities, as in a real basket.
+  private static List<BasketItem> toItems(QuoteBasket basket) {
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    for (QuoteItem item : basket.getItems()) {
+      quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+    }
+    return quantities.entrySet().stream()
+        .map(entry -> new BasketItem(entry.getKey(), entry.getValue()))
+        .toList();
+  }
+}
@@ -0,0 +1,189 @@
+package com.electronics.store.service;
+
+import com.electronics.store.availability.StockAvailabilityFeed;
+import com.electronics.store.dto.BulkStockAdjustmentResponse;
+import com.electronics.store.dto.StockAdjustmentEntry;
+import com.electronics.store.dto.StockAdjustmentFailure;
+import com.electronics.store.exception.MalformedRequestException;
+import com.electronics.store.inventory.InventoryEngine;
+import com.electronics.store.inventory.StockAdjustment;
+import com.electronics.store.ledger.StockLedger;
+import com.electronics.store.ledger.StockMovement;
+import com.electronics.store.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies restock imports. The request body is a JSON array read one entry at a time, and entries
+ * are applied in chunks of {@code store.inventory.adjustment-chunk-size}, each chunk in its own
+ * transaction, so neither memory nor transaction size grows with the import. A malformed entry
+ * ends the import: it is reported as a failed row next to what was applied up to there.
+ */
+@Service
+public class StockAdjustmentService {
+  private static final String UNREAD = "; the entries after it were not read";
+
+  private final InventoryEngine inventoryEngine;
+  private final ProductRepository productRepository;
+  private final StockLedger stockLedger;
+  private final StockAvailabilityFeed stockAvailabilityFeed;
+  private final ObjectMapper objectMapper;
+  private final int chunkSize;
+
+  public StockAdjustmentService(
+      InventoryEngine inventoryEngine,
+      ProductRepository productRepository,
+      StockLedger stockLedger,
+      StockAvailabilityFeed stockAvailabilityFeed,
+      ObjectMapper objectMapper,
+      @Value("${store.inventory.adjustment-chunk-size:1000}") int chunkSize) {
+    this.inventoryEngine = inventoryEngine;
+    this.productRepository = productRepository;
+    this.stockLedger = stockLedger;
+    this.stockAvailabilityFeed = stockAvailabilityFeed;
+    this.objectMapper = objectMapper;
+    this.chunkSize = chunkSize;
+  }
+
+  public BulkStockAdjustmentResponse adjust(InputStream body) throws IOException {
+    List<StockAdjustmentFailure> failures = new ArrayList<>();
+    List<StockAdjustment> chunk = new ArrayList<>(chunkSize);
+    List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+    int received = 0;
+    int applied = 0;
+
+    try (JsonParser parser = objectMapper.createParser(body)) {
+      if (nextToken(parser) != JsonToken.START_ARRAY) {
+        throw new MalformedRequestException("Expected a JSON array of stock adjustments");
+      }
+      boolean inEntry = false;
+      try {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          int index = received++;
+          inEntry = true;
+          StockAdjustmentEntry entry = objectMapper.readValue(parser, StockAdjustmentEntry.class);
+          inEntry = false;
+          String invalid = validate(entry);
+          if (invalid != null) {
+            failures.add(failure(index, entry.getProductId(), invalid));
+            continue;
+          }
+          chunk.add(
+              entry.getStock() != null
+                  ? StockAdjustment.absolute(entry.getProductId(), entry.getStock())
+                  : StockAdjustment.delta(entry.getProductId(), entry.getDelta()));
+          chunkIndexes.add(index);
+          if (chunk.size() == chunkSize) {
+            applied += applyChunk(chunk, chunkIndexes, failures);
+          }
+        }
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+          failures.add(failure(received++, null, "Expected a stock adjustment object" + UNREAD));
+        }
+      } catch (JsonProcessingException e) {
+        // Earlier chunks are committed already, so report the row rather than fail the request.
+        int index = inEntry ? received - 1 : received++;
+        failures.add(failure(index, null, "Malformed stock adjustment" + UNREAD));
+      }
+    }
+    applied += applyChunk(chunk, chunkIndexes, failures);
+
+    return BulkStockAdjustmentResponse.builder()
+        .received(received)
+        .applied(applied)
+        .failures(failures)
+        .build();
+  }
+
+  private int applyChunk(
+      List<StockAdjustment> chunk,
+      List<Integer> chunkIndexes,
+      List<StockAdjustmentFailure> failures) {
+    if (chunk.isEmpty()) {
+      return 0;
+    }
+    boolean[] results = inventoryEngine.adjust(chunk);
+
+    Set<Long> rejectedIds = new HashSet<>();
+    for (int i = 0; i < results.length; i++) {
+      if (!results[i]) {
+        rejectedIds.add(chunk.get(i).getProductId());
+      }
+    }
+    Set<Long> existingIds =
+        rejectedIds.isEmpty() ? Set.of() : productRepository.findExistingIds(rejectedIds);
+
+    int applied = 0;
+    for (int i = 0; i < results.length; i++) {
+      if (results[i]) {
+        StockAdjustment adjustment = chunk.get(i);
+        stockLedger.record(
+            adjustment.isAbsolute() ? StockMovement.RESTOCK_SET : StockMovement.RESTOCK_DELTA,
+            adjustment.getProductId(),
+            adjustment.getDelta());
+        stockAvailabilityFeed.publish(adjustment.getProductId());
+        applied++;
+        continue;
+      }
+      Long productId = chunk.get(i).getProductId();
+      long delta = chunk.get(i).getDelta();
+      failures.add(
+          failure(
+              chunkIndexes.get(i),
+              productId,
+              !existingIds.contains(productId)
+                  ? String.format("Product with ID %s not found.", productId)
+                  : delta < 0
+                      ? String.format(
+                          "Insufficient stock for product ID %s. Requested delta : %s",
+                          productId, delta)
+                      : String.format(
+                          "Stock for product ID %s would exceed %s. Requested delta : %s",
+                          productId, Integer.MAX_VALUE, delta)));
+    }
+    chunk.clear();
+    chunkIndexes.clear();
+    return applied;
+  }
+
+  private static JsonToken nextToken(JsonParser parser) throws IOException {
+    try {
+      return parser.nextToken();
+    } catch (JsonProcessingException e) {
+      throw new MalformedRequestException("Expected a JSON array of stock adjustments");
+    }
+  }
+
+  private static String validate(StockAdjustmentEntry entry) {
+    if (entry.getProductId() == null) {
+      return "productId must be specified";
+    }
+    if ((entry.getDelta() == null) == (entry.getStock() == null)) {
+      return "Exactly one of delta or stock must be specified";
+    }
+    if (entry.getStock() != null && entry.getStock() < 0) {
+      return "stock must not be negative";
+    }
+    if (entry.getStock() != null && entry.getStock() > Integer.MAX_VALUE) {
+      return String.format("stock must not exceed %s", Integer.MAX_VALUE);
+    }
+    if (entry.getDelta() != null && Math.abs(entry.getDelta()) > Integer.MAX_VALUE) {
+      return String.format("delta must be between -%1$s and %1$s", Integer.MAX_VALUE);
+    }
+    return null;
+  }
+
+  private static StockAdjustmentFailure failure(int index, Long productId, String reason) {
+    return StockAdjustmentFailure.builder().index(index).productId(productId).reason(reason).build();
+  }
+}
@@ -0,0 +1,133 @@
+package com.electronics.store.availability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.dto.ProductResponse;
+import com.electronics.store.exception.TooManySubscribersException;
+import com.electronics.store.mapper.ProductResponseMapper;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.ProductCategory;
+import com.electronics.store.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockAvailabilityFeedTest {
+  private static final Long LAPTOP_ID = 1L;
+
+  @Mock private ProductRepository productRepository;
+
+  @Mock private ProductResponseMapper productResponseMapper;
+
+  private StockAvailabilityFeed stockAvailabilityFeed;
+  private Product laptop;
+
+  @BeforeEach
+  void setUp() {
+    stockAvailabilityFeed =
+        new StockAvailabilityFeed(
+            productRepository, productResponseMapper, Duration.ofMinutes(1), 2, Runnable::run);
+    laptop =
+        new Product(LAPTOP_ID, "Laptop Pro", ProductCategory.ELECTRONICS, BigDecimal.TEN, 10);
+    when(productResponseMapper.toDto(any(Product.class)))
+        .thenReturn(ProductResponse.builder().id(LAPTOP_ID).stock(10).available(true).build());
+  }
+
+  @Test
+  @DisplayName("Should not track changes while nobody is subscribed")
+  void publish_shouldIgnoreChangesWithoutSubscribers() {
+    // Act
+    stockAvailabilityFeed.publish(LAPTOP_ID);
+    stockAvailabilityFeed.flush();
+
+    // Assert
+    verify(productRepository, never()).findAllById(any());
+  }
+
+  @Test
+  @DisplayName("Should load a product once per window however often it changed")
+  void flush_shouldCoalesceChangesPerProduct() {
+    // Arrange
+    stockAvailabilityFeed.subscribe(List.of(), List.of(ProductCategory.ELECTRONICS));
+    when(productRepository.findAllById(List.of(LAPTOP_ID))).thenReturn(List.of(laptop));
+
+    // Act
+    for (int i = 0; i < 5; i++) {
+      stockAvailabilityFeed.publish(LAPTOP_ID);
+    }
+    stockAvailabilityFeed.flush();
+    stockAvailabilityFeed.flush();
+
+    // Assert
+    verify(productRepository).findAllById(List.of(LAPTOP_ID));
+    verify(productResponseMapper).toDto(laptop);
+  }
+
+  @Test
+  @DisplayName("Should send the current state of explicitly subscribed products")
+  void subscribe_shouldSendInitialSnapshot() {
+    // Arrange
+    when(productRepository.findAllById(List.of(LAPTOP_ID))).thenReturn(List.of(laptop));
+
+    // Act
+    stockAvailabilityFeed.subscribe(List.of(LAPTOP_ID), List.of());
+
+    // Assert
+    verify(productResponseMapper).toDto(laptop);
+    assertEquals(1, stockAvailabilityFeed.subscriberCount());
+  }
+
+  @Test
+  @DisplayName("Should refuse subscribers beyond the limit")
+  void subscribe_shouldRejectSubscribersBeyondLimit() {
+    // Arrange
+    stockAvailabilityFeed.subscribe(List.of(), List.of());
+    stockAvailabilityFeed.subscribe(List.of(), List.of());
+
+    // Act & Assert
+    assertThrows(
+        TooManySubscribersException.class,
+        () -> stockAvailabilityFeed.subscribe(List.of(), List.of()));
+    assertEquals(2, stockAvailabilityFeed.subscriberCount());
+  }
+
+  @Test
+  @DisplayName("Should push events off the scheduler thread and drop a subscriber that fails")
+  void flush_shouldSendOnExecutorAndDropFailingSubscriber() {
+    // Arrange
+    List<Runnable> tasks = new ArrayList<>();
+    stockAvailabilityFeed =
+        new StockAvailabilityFeed(
+            productRepository, productResponseMapper, Duration.ofMinutes(1), 2, tasks::add);
+    SseEmitter emitter = stockAvailabilityFeed.subscribe(List.of(), List.of());
+    emitter.complete();
+    when(productRepository.findAllById(List.of(LAPTOP_ID))).thenReturn(List.of(laptop));
+    stockAvailabilityFeed.publish(LAPTOP_ID);
+
+    // Act
+    stockAvailabilityFeed.flush();
+
+    // Assert
+    assertEquals(1, tasks.size());
+    assertEquals(1, stockAvailabilityFeed.subscriberCount());
+    tasks.get(0).run();
+    assertEquals(0, stockAvailabilityFeed.subscriberCount());
+  }
+}
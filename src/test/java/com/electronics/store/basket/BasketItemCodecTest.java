@@ -0,0 +1,46 @@
+package com.electronics.store.basket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.electronics.store.model.BasketItem;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BasketItemCodecTest {
+
+  @Test
+  @DisplayName("Should decode exactly the lines that were encoded")
+  void encode_shouldRoundTrip() {
+    List<BasketItem> items =
+        List.of(
+            new BasketItem(1L, 1),
+            new BasketItem(127L, 128),
+            new BasketItem(Long.MAX_VALUE, Integer.MAX_VALUE));
+
+    assertEquals(items, BasketItemCodec.decode(BasketItemCodec.encode(items)));
+  }
+
+  @Test
+  @DisplayName("Should keep a 200-line basket to a few bytes per line")
+  void encode_shouldBeCompact() {
+    List<BasketItem> items = new ArrayList<>();
+    for (long productId = 1; productId <= 200; productId++) {
+      items.add(new BasketItem(productId, 2));
+    }
+
+    // 1 version byte, 2 count bytes, 1-2 bytes per product id and 1 per quantity
+    assertEquals(3 + 127 * 2 + 73 * 3, BasketItemCodec.encode(items).length);
+  }
+
+  @Test
+  @DisplayName("Should reject data written in an unknown format version")
+  void decode_shouldRejectUnknownVersion() {
+    assertThrows(IllegalStateException.class, () -> BasketItemCodec.decode(new byte[] {9, 0}));
+    assertThrows(
+        IllegalStateException.class,
+        () -> BasketItemCodec.decode(new byte[] {BasketItemCodec.FORMAT_VERSION, 1, (byte) 0x80}));
+  }
+}
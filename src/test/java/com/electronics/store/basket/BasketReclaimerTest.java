@@ -0,0 +1,139 @@
+package com.electronics.store.basket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.ledger.StockMovement;
+import com.electronics.store.model.Basket;
+import com.electronics.store.model.BasketItem;
+import com.electronics.store.repository.BasketRepository;
+import com.electronics.store.reservation.BasketReservations;
+import com.electronics.store.service.ProductService;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionOperations;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BasketReclaimerTest {
+  private static final Instant NOW = Instant.parse("2026-01-08T00:00:00Z");
+
+  @Mock private BasketRepository basketRepository;
+
+  @Mock private BasketStore basketStore;
+
+  @Mock private ProductService productService;
+
+  @Mock private BasketReservations basketReservations;
+
+  private BasketReclaimer basketReclaimer;
+
+  @BeforeEach
+  void setUp() {
+    basketReclaimer =
+        new BasketReclaimer(
+            basketRepository,
+            basketStore,
+            productService,
+            basketReservations,
+            TransactionOperations.withoutTransaction(),
+            Clock.fixed(NOW, ZoneOffset.UTC),
+            Duration.ofDays(7),
+            100);
+    when(basketStore.forget(any())).thenReturn(true);
+  }
+
+  private Basket basket(Long id, String userId, Instant lastModified, BasketItem... items) {
+    Basket basket = new Basket(id, userId, new ArrayList<>(List.of(items)));
+    basket.setLastModified(lastModified);
+    return basket;
+  }
+
+  @Test
+  @DisplayName("Should return the stock of abandoned baskets in one batch and delete them")
+  void reclaim_shouldReturnStockAndDeleteBaskets() {
+    // Arrange
+    Instant abandoned = NOW.minus(Duration.ofDays(8));
+    Basket first = basket(1L, "first", abandoned, new BasketItem(1L, 2), new BasketItem(2L, 1));
+    Basket second = basket(2L, "second", abandoned, new BasketItem(1L, 3));
+    when(basketRepository.findIdleBasketIds(any(), any())).thenReturn(List.of(1L, 2L));
+    when(basketRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+    // Act
+    int reclaimed = basketReclaimer.reclaim();
+
+    // Assert
+    assertEquals(2, reclaimed);
+    verify(productService).releaseStock(Map.of(1L, 5, 2L, 1), StockMovement.BASKET_RECLAIMED);
+    verify(basketRepository).deleteAll(List.of(first, second));
+    verify(basketStore).forget(first);
+    verify(basketReservations).release("second", 1L, 3);
+  }
+
+  @Test
+  @DisplayName("Should keep a basket that was changed after it was picked")
+  void reclaim_shouldSkipBasketsTouchedSincePicked() {
+    // Arrange
+    Basket touched = basket(1L, "first", NOW.minusSeconds(5), new BasketItem(1L, 2));
+    when(basketRepository.findIdleBasketIds(any(), any())).thenReturn(List.of(1L));
+    when(basketRepository.findAllById(List.of(1L))).thenReturn(List.of(touched));
+
+    // Act
+    int reclaimed = basketReclaimer.reclaim();
+
+    // Assert
+    assertEquals(0, reclaimed);
+    verify(productService).releaseStock(Map.of(), StockMovement.BASKET_RECLAIMED);
+    verify(basketRepository).deleteAll(List.of());
+    verify(basketStore, never()).forget(touched);
+  }
+
+  @Test
+  @DisplayName("Should keep a basket the store holds unwritten changes to")
+  void reclaim_shouldSkipBasketsTheStoreCannotForget() {
+    // Arrange
+    Instant abandoned = NOW.minus(Duration.ofDays(8));
+    Basket cached = basket(1L, "first", abandoned, new BasketItem(1L, 2));
+    when(basketRepository.findIdleBasketIds(any(), any())).thenReturn(List.of(1L));
+    when(basketRepository.findAllById(List.of(1L))).thenReturn(List.of(cached));
+    when(basketStore.forget(cached)).thenReturn(false);
+
+    // Act
+    int reclaimed = basketReclaimer.reclaim();
+
+    // Assert
+    assertEquals(0, reclaimed);
+    verify(productService).releaseStock(Map.of(), StockMovement.BASKET_RECLAIMED);
+    verify(basketRepository).deleteAll(List.of());
+    verify(basketReservations, never()).release(any(), any(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Should do nothing when no basket is abandoned")
+  void reclaim_shouldDoNothingWithoutAbandonedBaskets() {
+    // Arrange
+    when(basketRepository.findIdleBasketIds(any(), any())).thenReturn(List.of());
+
+    // Act & Assert
+    assertEquals(0, basketReclaimer.reclaim());
+    verify(productService, never()).releaseStock(anyMap(), any());
+  }
+}
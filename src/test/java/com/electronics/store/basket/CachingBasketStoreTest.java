@@ -0,0 +1,161 @@
+package com.electronics.store.basket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.model.Basket;
+import com.electronics.store.repository.BasketRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CachingBasketStoreTest {
+  private static final String CUSTOMER_USER_ID = "customer";
+
+  @Mock private BasketRepository basketRepository;
+
+  @Mock private Clock clock;
+
+  private CachingBasketStore cachingBasketStore;
+  private Basket storedBasket;
+
+  @BeforeEach
+  void setUp() {
+    cachingBasketStore =
+        new CachingBasketStore(
+            basketRepository,
+            BasketItemStorage.COMPACT,
+            TransactionOperations.withoutTransaction(),
+            clock,
+            10,
+            Duration.ofMinutes(30),
+            100);
+    storedBasket = new Basket(1L, CUSTOMER_USER_ID, new ArrayList<>());
+    storedBasket.setVersion(0L);
+    when(clock.millis()).thenReturn(0L);
+    when(basketRepository.findByUserId(CUSTOMER_USER_ID)).thenReturn(Optional.of(storedBasket));
+    when(basketRepository.findAllById(List.of(1L))).thenReturn(List.of(storedBasket));
+    when(basketRepository.saveAll(anyIterable()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  @DisplayName("Should load a basket once and serve later reads from memory")
+  void getOrCreate_shouldWarmBasketOnFirstAccess() {
+    // Act
+    cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+    cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+
+    // Assert
+    verify(basketRepository, times(1)).findByUserId(CUSTOMER_USER_ID);
+    assertEquals(1, cachingBasketStore.size());
+  }
+
+  @Test
+  @DisplayName("Should write saved baskets back only when flushed")
+  @SuppressWarnings("unchecked")
+  void save_shouldWriteBehind() {
+    // Arrange
+    Basket basket = cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+    basket.addItem(7L, 2);
+
+    // Act
+    cachingBasketStore.save(basket);
+
+    // Assert
+    verify(basketRepository, never()).save(any(Basket.class));
+    verify(basketRepository, never()).saveAll(anyIterable());
+
+    // Act 2
+    cachingBasketStore.flush();
+    cachingBasketStore.flush();
+
+    // Assert 2
+    ArgumentCaptor<List<Basket>> written = ArgumentCaptor.forClass(List.class);
+    verify(basketRepository, times(1)).saveAll(written.capture());
+    assertEquals(2, written.getValue().get(0).findItem(7L).getQuantity());
+  }
+
+  @Test
+  @DisplayName("Should reject saving a copy that another save has overtaken")
+  void save_shouldRejectStaleCopy() {
+    // Arrange
+    Basket first = cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+    Basket second = cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+    cachingBasketStore.save(first);
+
+    // Act & Assert
+    assertThrows(
+        ObjectOptimisticLockingFailureException.class, () -> cachingBasketStore.save(second));
+  }
+
+  @Test
+  @DisplayName("Should evict idle baskets only after writing their changes")
+  void flush_shouldEvictIdleBasketsAfterWriteBack() {
+    // Arrange
+    Basket basket = cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+    basket.addItem(7L, 2);
+    cachingBasketStore.save(basket);
+    when(clock.millis()).thenReturn(Duration.ofMinutes(31).toMillis());
+
+    // Act
+    cachingBasketStore.flush();
+
+    // Assert
+    verify(basketRepository, times(1)).saveAll(anyIterable());
+    assertEquals(0, cachingBasketStore.size());
+  }
+
+  @Test
+  @DisplayName("Should refuse to forget a basket with changes not yet written back")
+  void forget_shouldKeepBasketWithUnwrittenChanges() {
+    // Arrange
+    Basket basket = cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+    basket.addItem(7L, 2);
+    cachingBasketStore.save(basket);
+
+    // Act & Assert
+    assertFalse(cachingBasketStore.forget(storedBasket));
+    assertEquals(1, cachingBasketStore.size());
+  }
+
+  @Test
+  @DisplayName("Should not load a basket back while the reclaimer deletes it")
+  void forget_shouldRejectLoadsOfReclaimedBasket() {
+    // Arrange
+    cachingBasketStore.getOrCreate(CUSTOMER_USER_ID);
+
+    // Act
+    boolean forgotten = cachingBasketStore.forget(storedBasket);
+
+    // Assert
+    assertTrue(forgotten);
+    assertEquals(0, cachingBasketStore.size());
+    assertThrows(
+        ObjectOptimisticLockingFailureException.class,
+        () -> cachingBasketStore.getOrCreate(CUSTOMER_USER_ID));
+  }
+}
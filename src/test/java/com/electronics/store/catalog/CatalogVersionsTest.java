@@ -0,0 +1,54 @@
+package com.electronics.store.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogVersionsTest {
+
+  @Mock private DealIndex dealIndex;
+
+  private CatalogVersions catalogVersions;
+
+  @BeforeEach
+  void setUp() {
+    catalogVersions = new CatalogVersions(dealIndex);
+  }
+
+  @Test
+  @DisplayName("Should take the deal version from the deal index")
+  void dealVersion_shouldFollowDealIndex() {
+    // Arrange
+    when(dealIndex.version()).thenReturn(1L, 2L);
+
+    // Act
+    String before = catalogVersions.tag();
+    String after = catalogVersions.tag();
+
+    // Assert
+    assertNotEquals(before, after);
+    assertEquals(0, catalogVersions.productVersion());
+  }
+
+  @Test
+  @DisplayName("Should change the tag when a product is removed")
+  void tag_shouldChangeWhenProductChanges() {
+    // Arrange
+    String before = catalogVersions.tag();
+
+    // Act
+    catalogVersions.productChanged();
+
+    // Assert
+    assertNotEquals(before, catalogVersions.tag());
+    assertEquals(1, catalogVersions.productVersion());
+  }
+}
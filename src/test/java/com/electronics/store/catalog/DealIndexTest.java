@@ -0,0 +1,204 @@
+package com.electronics.store.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.model.Deal;
+import com.electronics.store.model.DealType;
+import com.electronics.store.repository.DealRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DealIndexTest {
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  @Mock private DealRepository dealRepository;
+
+  @Mock private Clock clock;
+
+  private DealIndex dealIndex;
+
+  @BeforeEach
+  void setUp() {
+    dealIndex = new DealIndex(dealRepository, clock);
+  }
+
+  @Test
+  @DisplayName("Should load active deals and drop one once the clock ticks past its expiry")
+  void tick_shouldDropExpiredDeals() {
+    // Arrange
+    when(clock.instant()).thenReturn(NOW);
+    when(clock.millis()).thenReturn(NOW.toEpochMilli());
+    Deal expiring = new Deal(1L, 10L, DealType.BOGO50, localTime(NOW.plus(Duration.ofHours(1))));
+    Deal lasting = new Deal(2L, 20L, DealType.BOGO50, null);
+    when(dealRepository.findUnexpired(any())).thenReturn(List.of(expiring, lasting));
+    dealIndex.reload();
+    long loadedVersion = dealIndex.version();
+
+    // Act
+    when(clock.millis()).thenReturn(NOW.plus(Duration.ofMinutes(59)).toEpochMilli());
+    dealIndex.tick();
+    Deal beforeExpiry = dealIndex.find(10L);
+    when(clock.millis()).thenReturn(NOW.plus(Duration.ofHours(1)).toEpochMilli());
+    dealIndex.tick();
+
+    // Assert
+    assertEquals(expiring, beforeExpiry);
+    assertNull(dealIndex.find(10L));
+    assertEquals(lasting, dealIndex.find(20L));
+    assertEquals(loadedVersion + 1, dealIndex.version());
+  }
+
+  @Test
+  @DisplayName("Should keep a newer deal when the deal it replaced expires")
+  void tick_shouldNotDropReplacingDeal() {
+    // Arrange
+    when(clock.millis()).thenReturn(NOW.toEpochMilli());
+    dealIndex.tick();
+    Deal replaced = new Deal(1L, 10L, DealType.BOGO50, localTime(NOW.plus(Duration.ofHours(1))));
+    Deal replacing = new Deal(2L, 10L, DealType.BOGO50, localTime(NOW.plus(Duration.ofDays(1))));
+
+    // Act
+    dealIndex.add(replaced);
+    dealIndex.add(replacing);
+    long versionBeforeTick = dealIndex.version();
+    when(clock.millis()).thenReturn(NOW.plus(Duration.ofHours(2)).toEpochMilli());
+    dealIndex.tick();
+
+    // Assert
+    assertEquals(replacing, dealIndex.find(10L));
+    assertEquals(versionBeforeTick, dealIndex.version());
+    assertEquals(2, versionBeforeTick);
+  }
+
+  @Test
+  @DisplayName("Should start a scheduled deal once the clock ticks past its start")
+  void tick_shouldStartScheduledDeal() {
+    // Arrange
+    when(clock.millis()).thenReturn(NOW.toEpochMilli());
+    dealIndex.tick();
+    Deal scheduled =
+        new Deal(
+            1L,
+            10L,
+            DealType.BOGO50,
+            localTime(NOW.plus(Duration.ofHours(1))),
+            localTime(NOW.plus(Duration.ofHours(2))));
+
+    // Act
+    dealIndex.add(scheduled);
+    Deal beforeStart = dealIndex.find(10L);
+    when(clock.millis()).thenReturn(NOW.plus(Duration.ofHours(1)).toEpochMilli());
+    dealIndex.tick();
+    Deal afterStart = dealIndex.find(10L);
+    when(clock.millis()).thenReturn(NOW.plus(Duration.ofHours(2)).toEpochMilli());
+    dealIndex.tick();
+
+    // Assert
+    assertNull(beforeStart);
+    assertEquals(scheduled, afterStart);
+    assertNull(dealIndex.find(10L));
+    assertEquals(2, dealIndex.version());
+  }
+
+  @Test
+  @DisplayName("Should prefer the deal that started last and fall back when it expires")
+  void find_shouldResolveOverlappingDeals() {
+    // Arrange
+    when(clock.instant()).thenReturn(NOW);
+    when(clock.millis()).thenReturn(NOW.toEpochMilli());
+    Deal running =
+        new Deal(1L, 10L, DealType.BOGO50, localTime(NOW.minus(Duration.ofDays(1))), null);
+    Deal promotion =
+        new Deal(
+            2L,
+            10L,
+            DealType.BOGO50,
+            localTime(NOW.minus(Duration.ofHours(1))),
+            localTime(NOW.plus(Duration.ofHours(1))));
+    when(dealRepository.findUnexpired(any())).thenReturn(List.of(promotion, running));
+
+    // Act
+    dealIndex.reload();
+    Deal duringPromotion = dealIndex.find(10L);
+    when(clock.millis()).thenReturn(NOW.plus(Duration.ofHours(1)).toEpochMilli());
+    dealIndex.tick();
+
+    // Assert
+    assertEquals(promotion, duringPromotion);
+    assertEquals(running, dealIndex.find(10L));
+  }
+
+  @Test
+  @DisplayName("Should ignore a deal that has already expired")
+  void add_shouldIgnoreExpiredDeal() {
+    // Arrange
+    when(clock.millis()).thenReturn(NOW.toEpochMilli());
+    dealIndex.tick();
+
+    // Act
+    dealIndex.add(new Deal(1L, 10L, DealType.BOGO50, localTime(NOW.minusSeconds(1))));
+
+    // Assert
+    assertNull(dealIndex.find(10L));
+    assertEquals(0, dealIndex.version());
+  }
+
+  @Test
+  @DisplayName("Should not be affected by later changes to the added deal")
+  void add_shouldIndexCopy() {
+    // Arrange
+    Deal deal = new Deal(1L, 10L, DealType.BOGO50, null);
+    dealIndex.add(deal);
+
+    // Act
+    deal.setProductId(20L);
+
+    // Assert
+    assertEquals(10L, dealIndex.find(10L).getProductId());
+    assertNull(dealIndex.find(20L));
+    assertSame(dealIndex.find(10L), dealIndex.find(10L));
+  }
+
+  @Test
+  @DisplayName("Should pick up deals created elsewhere on reload and keep the version otherwise")
+  void reload_shouldPublishOnlyWhenActiveDealsChange() {
+    // Arrange
+    when(clock.instant()).thenReturn(NOW);
+    when(clock.millis()).thenReturn(NOW.toEpochMilli());
+    Deal local = new Deal(1L, 10L, DealType.BOGO50, null);
+    Deal remote = new Deal(2L, 20L, DealType.BOGO50, null);
+    dealIndex.add(local);
+    when(dealRepository.findUnexpired(any())).thenReturn(List.of(local));
+    dealIndex.reload();
+    long unchangedVersion = dealIndex.version();
+
+    // Act
+    when(dealRepository.findUnexpired(any())).thenReturn(List.of(local, remote));
+    dealIndex.reload();
+
+    // Assert
+    assertEquals(1, unchangedVersion);
+    assertEquals(2, dealIndex.version());
+    assertEquals(remote, dealIndex.find(20L));
+    assertEquals(local, dealIndex.find(10L));
+  }
+
+  private static LocalDateTime localTime(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+  }
+}
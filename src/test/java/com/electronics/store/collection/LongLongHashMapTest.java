@@ -0,0 +1,60 @@
+package com.electronics.store.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LongLongHashMapTest {
+
+  @Test
+  @DisplayName("Should put, add to and remove entries")
+  void operations_shouldBehaveLikeAMap() {
+    LongLongHashMap map = new LongLongHashMap();
+
+    assertEquals(-1, map.put(7L, 10, -1));
+    assertEquals(10, map.put(7L, 12, -1));
+    assertEquals(15, map.addTo(7L, 3));
+    assertEquals(-4, map.addTo(8L, -4));
+    assertEquals(2, map.size());
+    assertEquals(15, map.remove(7L, -1));
+    assertEquals(-1, map.remove(7L, -1));
+    assertFalse(map.containsKey(7L));
+    assertTrue(map.containsKey(8L));
+    assertThrows(IllegalArgumentException.class, () -> map.get(Long.MIN_VALUE, 0));
+  }
+
+  @Test
+  @DisplayName("Should stay consistent with HashMap across growth and removals")
+  void operations_shouldMatchHashMapUnderRandomWorkload() {
+    LongLongHashMap map = new LongLongHashMap();
+    Map<Long, Long> reference = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(2_000);
+      switch (random.nextInt(3)) {
+        case 0 -> {
+          long value = random.nextLong();
+          Long previous = reference.put(key, value);
+          assertEquals(previous == null ? -1 : previous, map.put(key, value, -1));
+        }
+        case 1 -> {
+          Long previous = reference.remove(key);
+          assertEquals(previous == null ? -1 : previous, map.remove(key, -1));
+        }
+        default -> assertEquals(reference.merge(key, 1L, Long::sum), map.addTo(key, 1));
+      }
+      assertEquals(reference.size(), map.size());
+    }
+    Map<Long, Long> contents = new HashMap<>();
+    map.forEach(contents::put);
+    assertEquals(reference, contents);
+  }
+}
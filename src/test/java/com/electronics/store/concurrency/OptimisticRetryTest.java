@@ -0,0 +1,82 @@
+package com.electronics.store.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+class OptimisticRetryTest {
+  private SimpleMeterRegistry meterRegistry;
+  private OptimisticRetry optimisticRetry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    optimisticRetry =
+        new OptimisticRetry(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(2));
+  }
+
+  @Test
+  @DisplayName("Should re-run the action until it stops conflicting")
+  void execute_shouldRetryUntilSuccess() {
+    AtomicInteger calls = new AtomicInteger();
+
+    String result =
+        optimisticRetry.execute(
+            "test",
+            () -> {
+              if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+              }
+              return "done";
+            });
+
+    assertEquals("done", result);
+    assertEquals(3, calls.get());
+    assertEquals(3.0, meterRegistry.counter("store.optimistic.attempts", "operation", "test").count());
+    assertEquals(2.0, meterRegistry.counter("store.optimistic.conflicts", "operation", "test").count());
+  }
+
+  @Test
+  @DisplayName("Should give up and rethrow the conflict once attempts are exhausted")
+  void execute_shouldRethrowWhenAttemptsExhausted() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(
+        OptimisticLockingFailureException.class,
+        () ->
+            optimisticRetry.execute(
+                "test",
+                () -> {
+                  calls.incrementAndGet();
+                  throw new OptimisticLockingFailureException("stale");
+                }));
+
+    assertEquals(3, calls.get());
+    assertEquals(1.0, meterRegistry.counter("store.optimistic.exhausted", "operation", "test").count());
+  }
+
+  @Test
+  @DisplayName("Should not retry failures other than optimistic-locking conflicts")
+  void execute_shouldNotRetryOtherFailures() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            optimisticRetry.execute(
+                "test",
+                () -> {
+                  calls.incrementAndGet();
+                  throw new IllegalStateException("boom");
+                }));
+
+    assertEquals(1, calls.get());
+  }
+}
@@ -0,0 +1,106 @@
+package com.electronics.store.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UserMailboxesTest {
+  private final UserMailboxes mailboxes = new UserMailboxes();
+
+  @Test
+  @DisplayName("Should run one user's actions one at a time")
+  void run_shouldSerializeActionsOfSameUser() throws InterruptedException {
+    // Arrange
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    int[] counter = new int[1];
+    int threads = 8;
+    int iterations = 2_000;
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+    // Act
+    for (int t = 0; t < threads; t++) {
+      executorService.submit(
+          () -> {
+            for (int i = 0; i < iterations; i++) {
+              mailboxes.run(
+                  "alice",
+                  () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    counter[0]++;
+                    running.decrementAndGet();
+                  });
+            }
+          });
+    }
+    executorService.shutdown();
+
+    // Assert
+    assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+    assertEquals(threads * iterations, counter[0]);
+    assertEquals(1, maxRunning.get());
+    assertEquals(0, mailboxes.size());
+  }
+
+  @Test
+  @DisplayName("Should run different users' actions in parallel")
+  void run_shouldNotBlockOtherUsers() throws InterruptedException {
+    // Arrange
+    CountDownLatch aliceStarted = new CountDownLatch(1);
+    CountDownLatch bobFinished = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    executorService.submit(
+        () ->
+            mailboxes.run(
+                "alice",
+                () -> {
+                  aliceStarted.countDown();
+                  awaitQuietly(bobFinished);
+                }));
+    assertTrue(aliceStarted.await(5, TimeUnit.SECONDS));
+
+    // Act
+    String result = mailboxes.run("bob", () -> "done");
+    bobFinished.countDown();
+
+    // Assert
+    assertEquals("done", result);
+    executorService.shutdown();
+    assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(0, mailboxes.size());
+  }
+
+  @Test
+  @DisplayName("Should pass the turn on when an action fails")
+  void run_shouldReleaseMailboxWhenActionThrows() {
+    // Act
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            mailboxes.run(
+                "alice",
+                () -> {
+                  throw new IllegalStateException("boom");
+                }));
+
+    // Assert
+    assertEquals(0, mailboxes.size());
+    assertEquals(42, mailboxes.run("alice", () -> 42));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -8,6 +8,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -238,4 +239,131 @@ class AdminProductControllerIntegrationTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.content").isEmpty());
   }
+
+  @Test
+  @DisplayName(
+      "POST /admin/products/stock - Should apply deltas and absolute levels and report failed rows")
+  @WithMockUser(roles = "ADMIN")
+  void adjustStock_shouldApplyValidRowsAndReportFailures() throws Exception {
+    // Arrange
+    Product savedLaptop = productRepository.save(laptop);
+    Product savedMouse = productRepository.save(mouse);
+    Product savedKeyboard = productRepository.save(keyboard);
+    String body =
+        String.format(
+            "[{\"productId\": %s, \"delta\": 5},"
+                + " {\"productId\": %s, \"stock\": 7},"
+                + " {\"productId\": %s, \"delta\": -21},"
+                + " {\"productId\": 999999, \"delta\": 1},"
+                + " {\"productId\": %s, \"delta\": 1, \"stock\": 1}]",
+            savedLaptop.getId(), savedMouse.getId(), savedKeyboard.getId(), savedLaptop.getId());
+
+    // Act and Assert
+    mockMvc
+        .perform(post("/admin/products/stock").contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.received").value(5))
+        .andExpect(jsonPath("$.applied").value(2))
+        .andExpect(jsonPath("$.failures", hasSize(3)))
+        .andExpect(jsonPath("$.failures[0].index").value(4))
+        .andExpect(jsonPath("$.failures[0].reason", containsString("Exactly one of")))
+        .andExpect(jsonPath("$.failures[1].index").value(2))
+        .andExpect(jsonPath("$.failures[1].reason", containsString("Insufficient stock")))
+        .andExpect(jsonPath("$.failures[2].index").value(3))
+        .andExpect(jsonPath("$.failures[2].reason", containsString("not found")));
+
+    assertEquals(15, productRepository.findById(savedLaptop.getId()).orElseThrow().getStock());
+    assertEquals(7, productRepository.findById(savedMouse.getId()).orElseThrow().getStock());
+    assertEquals(20, productRepository.findById(savedKeyboard.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName(
+      "POST /admin/products/stock - Should report a malformed entry and keep the rows before it")
+  @WithMockUser(roles = "ADMIN")
+  void adjustStock_shouldReportMalformedEntryAfterApplyingEarlierRows() throws Exception {
+    // Arrange
+    Product savedLaptop = productRepository.save(laptop);
+    Product savedMouse = productRepository.save(mouse);
+    String body =
+        String.format(
+            "[{\"productId\": %s, \"delta\": 5},"
+                + " {\"productId\": %s, \"delta\": \"many\"},"
+                + " {\"productId\": %s, \"delta\": 1}]",
+            savedLaptop.getId(), savedMouse.getId(), savedMouse.getId());
+
+    // Act and Assert
+    mockMvc
+        .perform(post("/admin/products/stock").contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.received").value(2))
+        .andExpect(jsonPath("$.applied").value(1))
+        .andExpect(jsonPath("$.failures", hasSize(1)))
+        .andExpect(jsonPath("$.failures[0].index").value(1))
+        .andExpect(jsonPath("$.failures[0].reason", containsString("Malformed")));
+
+    assertEquals(15, productRepository.findById(savedLaptop.getId()).orElseThrow().getStock());
+    assertEquals(50, productRepository.findById(savedMouse.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("POST /admin/products/stock - Should report values beyond the int stock column")
+  @WithMockUser(roles = "ADMIN")
+  void adjustStock_shouldReportValuesOutOfIntRange() throws Exception {
+    // Arrange
+    Product savedLaptop = productRepository.save(laptop);
+    Product savedMouse = productRepository.save(mouse);
+    String body =
+        String.format(
+            "[{\"productId\": %s, \"delta\": 3000000000},"
+                + " {\"productId\": %s, \"stock\": 3000000000},"
+                + " {\"productId\": %s, \"delta\": 2147483647},"
+                + " {\"productId\": %s, \"delta\": 1}]",
+            savedLaptop.getId(), savedMouse.getId(), savedLaptop.getId(), savedMouse.getId());
+
+    // Act and Assert
+    mockMvc
+        .perform(post("/admin/products/stock").contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.received").value(4))
+        .andExpect(jsonPath("$.applied").value(1))
+        .andExpect(jsonPath("$.failures", hasSize(3)))
+        .andExpect(jsonPath("$.failures[0].reason", containsString("delta must be between")))
+        .andExpect(jsonPath("$.failures[1].reason", containsString("stock must not exceed")))
+        .andExpect(jsonPath("$.failures[2].index").value(2))
+        .andExpect(jsonPath("$.failures[2].reason", containsString("would exceed")));
+
+    assertEquals(10, productRepository.findById(savedLaptop.getId()).orElseThrow().getStock());
+    assertEquals(51, productRepository.findById(savedMouse.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("POST /admin/products/stock - Should return 400 Bad Request for a non-array body")
+  @WithMockUser(roles = "ADMIN")
+  void adjustStock_shouldReturnBadRequestForMalformedBody() throws Exception {
+    mockMvc
+        .perform(
+            post("/admin/products/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\": 1, \"delta\": 5}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName(
+      "PUT /admin/products/{id}/stock-buckets - Should return 400 for a bucket count out of range")
+  @WithMockUser(roles = "ADMIN")
+  void splitStock_shouldReturnBadRequestForBucketCountOutOfRange() throws Exception {
+    // Arrange
+    Product savedLaptop = productRepository.save(laptop);
+
+    // Act & Assert
+    mockMvc
+        .perform(
+            put("/admin/products/{productId}/stock-buckets", savedLaptop.getId())
+                .param("buckets", "0"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Validation Error"))
+        .andExpect(jsonPath("$.message", containsString("buckets")));
+  }
 }
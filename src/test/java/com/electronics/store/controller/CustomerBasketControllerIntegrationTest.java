@@ -1,12 +1,20 @@
 package com.electronics.store.controller;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.electronics.store.catalog.DealIndex;
+import com.electronics.store.dto.BasketBatchRequest;
+import com.electronics.store.dto.BasketOperation;
+import com.electronics.store.dto.BasketOperationType;
 import com.electronics.store.dto.BasketUpdateRequest;
 import com.electronics.store.model.Deal;
 import com.electronics.store.model.DealType;
@@ -14,21 +22,29 @@ import com.electronics.store.model.Product;
 import com.electronics.store.model.ProductCategory;
 import com.electronics.store.repository.DealRepository;
 import com.electronics.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
-@SpringBootTest
+@SpringBootTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.electronics.store.controller.StatementCounter")
 @AutoConfigureMockMvc
 @Transactional
 class CustomerBasketControllerIntegrationTest {
@@ -37,6 +53,8 @@ class CustomerBasketControllerIntegrationTest {
   @Autowired ObjectMapper objectMapper;
   @Autowired ProductRepository productRepository;
   @Autowired DealRepository dealRepository;
+  @Autowired DealIndex dealIndex;
+  @Autowired EntityManager entityManager;
   private Product laptop;
   private Product mouse;
   @Autowired private MockMvc mockMvc;
@@ -45,6 +63,7 @@ class CustomerBasketControllerIntegrationTest {
   void setUp() {
     productRepository.deleteAll();
     dealRepository.deleteAll();
+    dealIndex.reload();
     laptop =
         productRepository.save(
             new Product(
@@ -86,6 +105,64 @@ class CustomerBasketControllerIntegrationTest {
         .andExpect(jsonPath("$.content[0].stock").value(8));
   }
 
+  @Test
+  @DisplayName("POST /customer/basket/add twice - should keep both adds in the receipt - CUSTOMER")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void addProductToBasket_twiceShouldBeStoredForReceipt() throws Exception {
+    // Arrange
+    BasketUpdateRequest addLaptop =
+        BasketUpdateRequest.builder().productId(laptop.getId()).quantity(1).build();
+    BasketUpdateRequest addMouse =
+        BasketUpdateRequest.builder().productId(mouse.getId()).quantity(2).build();
+
+    // Act
+    for (BasketUpdateRequest addRequest : List.of(addLaptop, addMouse)) {
+      mockMvc
+          .perform(
+              post("/customer/basket/add")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(addRequest)))
+          .andExpect(status().isOk());
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    // Assert
+    mockMvc
+        .perform(get("/customer/basket/receipt"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].productId").value(laptop.getId()))
+        .andExpect(jsonPath("$.items[1].quantity").value(2))
+        .andExpect(jsonPath("$.totalPrice").value(1250.0));
+  }
+
+  @Test
+  @DisplayName("POST /customer/basket/batch - should apply all operations in one call - CUSTOMER")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void updateBasket_shouldApplyAllOperations() throws Exception {
+    // Arrange
+    BasketBatchRequest batchRequest =
+        BasketBatchRequest.builder()
+            .operations(
+                List.of(
+                    new BasketOperation(BasketOperationType.ADD, laptop.getId(), 2),
+                    new BasketOperation(BasketOperationType.ADD, mouse.getId(), 5),
+                    new BasketOperation(BasketOperationType.REMOVE, mouse.getId(), 1)))
+            .build();
+
+    // Act & Assert
+    mockMvc
+        .perform(
+            post("/customer/basket/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].quantity").value(2))
+        .andExpect(jsonPath("$.items[1].quantity").value(4));
+  }
+
   @Test
   @DisplayName("POST /customer/basket/add - should return forbidden for non-customer role")
   @WithMockUser(roles = "ADMIN")
@@ -347,8 +424,7 @@ class CustomerBasketControllerIntegrationTest {
   @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
   void getReceipt_shouldCalculateCorrectlyWithBOGO50DealEvenQuantity() throws Exception {
     // Arrange: add BOGO50 deal for laptop
-    dealRepository.save(
-        new Deal(null, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusDays(7)));
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusDays(7)));
 
     // Arrange : add 2 laptops to the basket
     BasketUpdateRequest basketUpdateRequest =
@@ -378,8 +454,7 @@ class CustomerBasketControllerIntegrationTest {
   @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
   void getReceipt_shouldCalculateCorrectlyWithBOGO50DealOddQuantity() throws Exception {
     // Arrange: add BOGO50 deal for laptop
-    dealRepository.save(
-        new Deal(null, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusDays(7)));
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusDays(7)));
 
     // Arrange : add 3 laptops to the basket
     BasketUpdateRequest basketUpdateRequest =
@@ -424,8 +499,7 @@ class CustomerBasketControllerIntegrationTest {
   @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
   void getReceipt_shouldNotApplyExpiredDeals() throws Exception {
     // Arrange: add BOGO50 deal for laptop
-    dealRepository.save(
-        new Deal(null, laptop.getId(), DealType.BOGO50, LocalDateTime.now().minusDays(1)));
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, LocalDateTime.now().minusDays(1)));
 
     // Arrange : add 2 laptops to the basket
     BasketUpdateRequest basketUpdateRequest =
@@ -449,4 +523,218 @@ class CustomerBasketControllerIntegrationTest {
         .andExpect(jsonPath("$.dealsApplied").isEmpty())
         .andExpect(jsonPath("$.totalPrice").value(2400.0));
   }
+
+  @Test
+  @DisplayName(
+      "GET /customer/basket/receipt - should apply one deal when a product has several - CUSTOMER role")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void getReceipt_shouldApplyOneDealWhenProductHasSeveral() throws Exception {
+    // Arrange: a running deal, an overlapping one and one scheduled for next week
+    LocalDateTime now = LocalDateTime.now();
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, now.minusDays(2), null));
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, now.minusDays(1), now.plusDays(1)));
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, now.plusDays(7), now.plusDays(8)));
+    BasketUpdateRequest basketUpdateRequest =
+        BasketUpdateRequest.builder().productId(laptop.getId()).quantity(2).build();
+    mockMvc
+        .perform(
+            post("/customer/basket/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(basketUpdateRequest)))
+        .andExpect(status().isOk());
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/customer/basket/receipt"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].dealApplied").value("BOGO50"))
+        .andExpect(jsonPath("$.dealsApplied", hasSize(1)))
+        .andExpect(jsonPath("$.totalPrice").value(1800.0));
+  }
+
+  @Test
+  @DisplayName("GET /customer/basket/receipt/stream - should stream lines then totals - CUSTOMER role")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void streamReceipt_shouldWriteOneLinePerItemThenTotals() throws Exception {
+    // Arrange
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, null));
+    List<BasketOperation> operations = new ArrayList<>();
+    operations.add(new BasketOperation(BasketOperationType.ADD, laptop.getId(), 2));
+    operations.add(new BasketOperation(BasketOperationType.ADD, mouse.getId(), 1));
+    applyBatch(operations);
+
+    // Act
+    String body =
+        mockMvc
+            .perform(get("/customer/basket/receipt/stream"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    // Assert
+    String[] lines = body.split("\n");
+    assertEquals(3, lines.length);
+    JsonNode laptopLine = objectMapper.readTree(lines[0]);
+    assertEquals(laptop.getId(), laptopLine.get("productId").asLong());
+    assertEquals("BOGO50", laptopLine.get("dealApplied").asText());
+    assertEquals(mouse.getId(), objectMapper.readTree(lines[1]).get("productId").asLong());
+    JsonNode summary = objectMapper.readTree(lines[2]);
+    assertEquals("BOGO50 for Laptop Pro", summary.get("dealsApplied").get(0).asText());
+    assertEquals(0, new BigDecimal("1825.00").compareTo(summary.get("totalPrice").decimalValue()));
+  }
+
+  @Test
+  @DisplayName("GET /customer/basket/receipt/stream - should return 404 before any line - CUSTOMER role")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void streamReceipt_shouldReturnNotFoundBeforeWritingWhenProductIsMissing() throws Exception {
+    // Arrange
+    List<BasketOperation> operations = new ArrayList<>();
+    operations.add(new BasketOperation(BasketOperationType.ADD, laptop.getId(), 1));
+    operations.add(new BasketOperation(BasketOperationType.ADD, mouse.getId(), 1));
+    applyBatch(operations);
+    productRepository.deleteById(mouse.getId());
+    entityManager.flush();
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/customer/basket/receipt/stream"))
+        .andExpect(status().isNotFound())
+        .andExpect(
+            jsonPath("$.message")
+                .value(String.format("Product with ID %s not found.", mouse.getId())));
+  }
+
+  @Test
+  @DisplayName("GET /customer/basket - should return 304 until the basket changes - CUSTOMER role")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void getBasket_shouldReturnNotModifiedUntilBasketChanges() throws Exception {
+    // Arrange
+    String eTag =
+        mockMvc
+            .perform(get("/customer/basket"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items").isEmpty())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/customer/basket").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().string(""));
+
+    // Act & Assert 2
+    BasketUpdateRequest addRequest =
+        BasketUpdateRequest.builder().productId(laptop.getId()).quantity(1).build();
+    mockMvc
+        .perform(
+            post("/customer/basket/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(addRequest)))
+        .andExpect(status().isOk());
+    String newETag =
+        mockMvc
+            .perform(get("/customer/basket").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotEquals(eTag, newETag);
+  }
+
+  @Test
+  @DisplayName("GET /customer/basket/receipt - should return 304 for a matching ETag - CUSTOMER")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void getReceipt_shouldReturnNotModifiedForMatchingETag() throws Exception {
+    // Arrange
+    BasketUpdateRequest addRequest =
+        BasketUpdateRequest.builder().productId(mouse.getId()).quantity(2).build();
+    mockMvc
+        .perform(
+            post("/customer/basket/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(addRequest)))
+        .andExpect(status().isOk());
+    String eTag =
+        mockMvc
+            .perform(get("/customer/basket/receipt"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalPrice").value(50.0))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/customer/basket/receipt").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  @DisplayName("GET /customer/basket/receipt - should run as many statements for 2 lines as for 40")
+  @WithMockUser(username = CUSTOMER_USER_ID, roles = "CUSTOMER")
+  void getReceipt_shouldRunConstantNumberOfStatementsRegardlessOfBasketSize() throws Exception {
+    // Arrange
+    saveDeal(new Deal(null, laptop.getId(), DealType.BOGO50, null));
+    List<BasketOperation> operations = new ArrayList<>();
+    operations.add(new BasketOperation(BasketOperationType.ADD, laptop.getId(), 2));
+    operations.add(new BasketOperation(BasketOperationType.ADD, mouse.getId(), 1));
+    applyBatch(operations);
+    long smallBasketStatements = countReceiptStatements(2, 1);
+
+    operations.clear();
+    for (int i = 0; i < 38; i++) {
+      Product book =
+          productRepository.save(
+              new Product(null, "Book " + i, ProductCategory.BOOKS, BigDecimal.valueOf(10), 5));
+      if (i % 2 == 0) {
+        saveDeal(new Deal(null, book.getId(), DealType.BOGO50, null));
+      }
+      operations.add(new BasketOperation(BasketOperationType.ADD, book.getId(), 2));
+    }
+    applyBatch(operations);
+
+    // Act
+    long largeBasketStatements = countReceiptStatements(40, 20);
+
+    // Assert
+    assertEquals(smallBasketStatements, largeBasketStatements);
+  }
+
+  // The test transaction never commits, so deals are indexed by reloading inside it.
+  private void saveDeal(Deal deal) {
+    dealRepository.save(deal);
+    dealIndex.reload();
+  }
+
+  private void applyBatch(List<BasketOperation> operations) throws Exception {
+    BasketBatchRequest batchRequest = BasketBatchRequest.builder().operations(operations).build();
+    mockMvc
+        .perform(
+            post("/customer/basket/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest)))
+        .andExpect(status().isOk());
+  }
+
+  // Starts from an empty persistence context, as a real request would.
+  // Checks the receipt's size too, so an empty basket cannot make the counts match trivially.
+  private long countReceiptStatements(int items, int dealsApplied) throws Exception {
+    entityManager.flush();
+    entityManager.clear();
+    StatementCounter.reset();
+    mockMvc
+        .perform(get("/customer/basket/receipt"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(items)))
+        .andExpect(jsonPath("$.dealsApplied", hasSize(dealsApplied)));
+    return StatementCounter.count();
+  }
 }
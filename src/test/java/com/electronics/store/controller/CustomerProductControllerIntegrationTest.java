@@ -1,22 +1,32 @@
 package com.electronics.store.controller;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.electronics.store.dto.QuoteBasket;
+import com.electronics.store.dto.QuoteItem;
+import com.electronics.store.dto.QuoteRequest;
 import com.electronics.store.model.Product;
 import com.electronics.store.model.ProductCategory;
+import com.electronics.store.repository.BasketRepository;
 import com.electronics.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +36,8 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 class CustomerProductControllerIntegrationTest {
   @Autowired MockMvc mockMvc;
+  @Autowired ObjectMapper objectMapper;
+  @Autowired BasketRepository basketRepository;
 
   @Autowired
   ProductRepository  productRepository;
@@ -180,6 +192,68 @@ class CustomerProductControllerIntegrationTest {
             .andExpect(jsonPath("$.totalPages").value(0));
   }
 
+  @Test
+  @DisplayName("POST /customer/products/quotes - should price baskets without storing them - no login")
+  void quote_shouldPriceBasketsWithoutStoringThem() throws Exception {
+    // Arrange
+    QuoteRequest quoteRequest =
+        new QuoteRequest(
+            List.of(
+                new QuoteBasket(
+                    List.of(new QuoteItem(laptop.getId(), 1), new QuoteItem(mouse.getId(), 2))),
+                new QuoteBasket(List.of(new QuoteItem(book.getId(), 3)))));
+    long basketsBefore = basketRepository.count();
+
+    // Act & Assert
+    mockMvc
+        .perform(
+            post("/customer/products/quotes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(quoteRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].items", hasSize(2)))
+        .andExpect(jsonPath("$[0].totalPrice").value(1250.0))
+        .andExpect(jsonPath("$[1].items[0].quantity").value(3))
+        .andExpect(jsonPath("$[1].totalPrice").value(135.0));
+    assertEquals(basketsBefore, basketRepository.count());
+    assertEquals(10, productRepository.findById(laptop.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("POST /customer/products/quotes - should reject an empty request - no login")
+  void quote_shouldRejectEmptyRequest() throws Exception {
+    mockMvc
+        .perform(
+            post("/customer/products/quotes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new QuoteRequest(List.of()))))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("POST /customer/products/quotes - should reject too many items in total - no login")
+  void quote_shouldRejectTooManyItems() throws Exception {
+    // Arrange
+    List<QuoteItem> items = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      items.add(new QuoteItem(laptop.getId(), 1));
+    }
+    List<QuoteBasket> baskets = new ArrayList<>();
+    for (int i = 0; i < 11; i++) {
+      baskets.add(new QuoteBasket(items));
+    }
+
+    // Act & Assert
+    mockMvc
+        .perform(
+            post("/customer/products/quotes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new QuoteRequest(baskets))))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("At most 10000 items")));
+  }
+
   @Test
   void getFilteredProducts() {
 
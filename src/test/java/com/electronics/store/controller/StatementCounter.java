@@ -0,0 +1,25 @@
+package com.electronics.store.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. MockMvc handles a request
+ * on the calling thread, so scheduled jobs running meanwhile do not skew a test's count.
+ */
+public class StatementCounter implements StatementInspector {
+  private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  public static void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  public static long count() {
+    return COUNT.get()[0];
+  }
+}
@@ -0,0 +1,146 @@
+package com.electronics.store.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.exception.IdempotencyKeyReusedException;
+import com.electronics.store.exception.InsufficientStockException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyStoreTest {
+  private static final String CUSTOMER_USER_ID = "customer";
+
+  @Mock private Clock clock;
+
+  private IdempotencyStore idempotencyStore;
+  private AtomicInteger calls;
+
+  @BeforeEach
+  void setUp() {
+    idempotencyStore = new IdempotencyStore(clock, Duration.ofHours(1), 2);
+    calls = new AtomicInteger();
+    when(clock.millis()).thenReturn(0L);
+  }
+
+  private ResponseEntity<Integer> add(String key, Object request) {
+    return idempotencyStore.execute(
+        CUSTOMER_USER_ID,
+        key,
+        "basket.add",
+        request,
+        () -> ResponseEntity.ok(calls.incrementAndGet()));
+  }
+
+  @Test
+  @DisplayName("Should replay the stored response to a retry with the same key")
+  void execute_shouldReplayRetries() {
+    // Act
+    ResponseEntity<Integer> first = add("key-1", "laptop x2");
+    ResponseEntity<Integer> retry = add("key-1", "laptop x2");
+
+    // Assert
+    assertEquals(1, calls.get());
+    assertEquals(first.getBody(), retry.getBody());
+    assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+  }
+
+  @Test
+  @DisplayName("Should run requests without a key every time")
+  void execute_shouldRunRequestsWithoutKey() {
+    // Act
+    add(null, "laptop x2");
+    add(null, "laptop x2");
+
+    // Assert
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  @DisplayName("Should reject reusing a key for a different request")
+  void execute_shouldRejectKeyReuse() {
+    // Arrange
+    add("key-1", "laptop x2");
+
+    // Act & Assert
+    assertThrows(IdempotencyKeyReusedException.class, () -> add("key-1", "mouse x1"));
+  }
+
+  @Test
+  @DisplayName("Should not keep failed responses so the request can be retried")
+  void execute_shouldForgetFailures() {
+    // Arrange
+    assertThrows(
+        InsufficientStockException.class,
+        () ->
+            idempotencyStore.execute(
+                CUSTOMER_USER_ID,
+                "key-1",
+                "basket.add",
+                "laptop x2",
+                () -> {
+                  throw new InsufficientStockException("Insufficient stock");
+                }));
+
+    // Act
+    add("key-1", "laptop x2");
+
+    // Assert
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  @DisplayName("Should drop responses once expired or beyond the size limit")
+  void evict_shouldDropExpiredAndOldestResponses() {
+    // Arrange
+    add("key-1", "laptop x2");
+    add("key-2", "laptop x2");
+    add("key-3", "laptop x2");
+
+    // Act & Assert
+    assertEquals(2, idempotencyStore.size());
+    when(clock.millis()).thenReturn(Duration.ofHours(2).toMillis());
+    idempotencyStore.evict();
+    assertEquals(0, idempotencyStore.size());
+  }
+
+  @Test
+  @DisplayName("Should not count failed requests against the size limit")
+  void evict_shouldSkipFailedEntries() {
+    // Arrange
+    assertThrows(
+        InsufficientStockException.class,
+        () ->
+            idempotencyStore.execute(
+                CUSTOMER_USER_ID,
+                "key-1",
+                "basket.add",
+                "laptop x2",
+                () -> {
+                  throw new InsufficientStockException("Insufficient stock");
+                }));
+    add("key-2", "laptop x2");
+    add("key-3", "laptop x2");
+
+    // Act
+    add("key-2", "laptop x2");
+    add("key-3", "laptop x2");
+
+    // Assert
+    assertEquals(2, idempotencyStore.size());
+    assertEquals(2, calls.get());
+  }
+}
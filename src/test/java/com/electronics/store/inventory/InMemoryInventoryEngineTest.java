@@ -0,0 +1,294 @@
+package com.electronics.store.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.exception.InsufficientStockException;
+import com.electronics.store.exception.InventoryModeException;
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.ProductCategory;
+import com.electronics.store.repository.ProductRepository;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InMemoryInventoryEngineTest {
+  @Mock private ProductRepository productRepository;
+
+  @Mock private StockDeltaWriter stockDeltaWriter;
+
+  @TempDir Path journalDirectory;
+
+  private InMemoryInventoryEngine engine;
+
+  // Net deltas the mocked writer has "written to the database"
+  private final Map<Long, Long> written = new HashMap<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Product console =
+        new Product(
+            15L, "Gaming Console PS5", ProductCategory.ELECTRONICS, BigDecimal.valueOf(499.99), 4);
+    when(productRepository.findById(15L)).thenReturn(Optional.of(console));
+    doAnswer(
+            invocation -> {
+              Map<Long, Long> deltas = invocation.getArgument(0);
+              deltas.forEach((productId, delta) -> written.merge(productId, delta, Long::sum));
+              return null;
+            })
+        .when(stockDeltaWriter)
+        .apply(anyMap());
+    engine = newEngine();
+  }
+
+  @Test
+  @DisplayName("Should reserve from memory and only touch the database on first access")
+  void reserve_shouldDecrementCounterWithoutDatabaseWrites() {
+    // Act
+    engine.reserve(15L, 1);
+    engine.reserve(15L, 2);
+
+    // Assert
+    assertEquals(1, engine.availableStock(15L));
+    verify(productRepository, times(1)).findById(15L);
+    assertTrue(written.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should throw InsufficientStockException without changing stock")
+  void reserve_shouldThrowInsufficientStockException() {
+    // Act
+    InsufficientStockException exception =
+        assertThrows(InsufficientStockException.class, () -> engine.reserve(15L, 5));
+
+    // Assert
+    assertEquals(
+        "Insufficient stock for product ID 15. Available : 4 - Requested : 5",
+        exception.getMessage());
+    assertEquals(4, engine.availableStock(15L));
+  }
+
+  @Test
+  @DisplayName("Should throw ProductNotFoundException for an unknown product")
+  void reserve_shouldThrowProductNotFoundException() {
+    // Arrange
+    when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+    // Act
+    ProductNotFoundException exception =
+        assertThrows(ProductNotFoundException.class, () -> engine.reserve(999L, 1));
+
+    // Assert
+    assertEquals("Product with ID 999 not found.", exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("Should refuse hot SKU mode, which only the database engine has")
+  void split_shouldThrowInventoryModeException() {
+    // Act & Assert
+    assertThrows(InventoryModeException.class, () -> engine.split(15L, 4));
+  }
+
+  @Test
+  @DisplayName("Should flush net deltas in one batch and drop the flushed journal segment")
+  void flush_shouldWriteNetDeltasAndDeleteJournal() throws IOException {
+    // Arrange
+    engine.reserve(15L, 3);
+    engine.release(15L, 1);
+
+    // Act
+    engine.flush();
+
+    // Assert
+    assertEquals(Map.of(15L, -2L), written);
+    assertEquals(1, journalSegments());
+    engine.flush();
+    assertEquals(Map.of(15L, -2L), written);
+  }
+
+  @Test
+  @DisplayName("Should keep deltas and their journal when a flush fails, and retry later")
+  void flush_shouldRetryFailedDeltas() throws IOException {
+    // Arrange
+    engine.reserve(15L, 2);
+    doThrow(new IllegalStateException("database down")).when(stockDeltaWriter).apply(anyMap());
+
+    // Act
+    engine.flush();
+
+    // Assert
+    assertTrue(written.isEmpty());
+    assertEquals(2, journalSegments());
+
+    // Act 2 : the database is back
+    doAnswer(
+            invocation -> {
+              Map<Long, Long> deltas = invocation.getArgument(0);
+              written.putAll(deltas);
+              return null;
+            })
+        .when(stockDeltaWriter)
+        .apply(anyMap());
+    engine.flush();
+
+    // Assert 2
+    assertEquals(Map.of(15L, -2L), written);
+    assertEquals(1, journalSegments());
+  }
+
+  @Test
+  @DisplayName("Should replay unflushed deltas from the journal after a crash")
+  void start_shouldRecoverUnflushedDeltasFromJournal() throws IOException {
+    // Arrange : mutate, then "crash" without flushing
+    engine.reserve(15L, 3);
+    engine.release(15L, 1);
+    engine.reserve(15L, 1);
+
+    // Act
+    newEngine();
+
+    // Assert
+    assertEquals(Map.of(15L, -3L), written);
+  }
+
+  @Test
+  @DisplayName("Concurrent reservations with concurrent flushes should never oversell or lose deltas")
+  void reserve_concurrentReservationsShouldNeverOversell() throws Exception {
+    // Arrange
+    Product popularItem =
+        new Product(
+            22L, "Popular Item X", ProductCategory.ELECTRONICS, BigDecimal.valueOf(100.00), 200);
+    when(productRepository.findById(22L)).thenReturn(Optional.of(popularItem));
+    AtomicInteger sold = new AtomicInteger();
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService flusher = Executors.newSingleThreadExecutor();
+    flusher.submit(
+        () -> {
+          while (running.get()) {
+            engine.flush();
+          }
+        });
+
+    // Act
+    ExecutorService buyers = Executors.newFixedThreadPool(16);
+    for (int t = 0; t < 16; t++) {
+      buyers.submit(
+          () -> {
+            for (int i = 0; i < 50; i++) {
+              try {
+                engine.reserve(22L, 1);
+                sold.incrementAndGet();
+              } catch (InsufficientStockException e) {
+                // sold out
+              }
+            }
+          });
+    }
+    buyers.shutdown();
+    assertTrue(buyers.awaitTermination(30, TimeUnit.SECONDS));
+    running.set(false);
+    flusher.shutdown();
+    assertTrue(flusher.awaitTermination(30, TimeUnit.SECONDS));
+    engine.flush();
+
+    // Assert
+    assertEquals(200, sold.get());
+    assertEquals(0, engine.availableStock(22L));
+    assertEquals(-200L, written.get(22L));
+  }
+
+  @Test
+  @DisplayName("Should not write anything when nothing changed")
+  void flush_shouldSkipWhenNothingChanged() {
+    // Act
+    engine.flush();
+
+    // Assert
+    verify(productRepository, never()).findById(15L);
+    assertTrue(written.isEmpty());
+  }
+
+  private InMemoryInventoryEngine newEngine() throws IOException {
+    InMemoryInventoryEngine newEngine =
+        new InMemoryInventoryEngine(
+            productRepository, stockDeltaWriter, new InventoryDeltaJournal(journalDirectory));
+    newEngine.start();
+    return newEngine;
+  }
+
+  private long journalSegments() throws IOException {
+    try (Stream<Path> files = Files.list(journalDirectory)) {
+      return files.count();
+    }
+  }
+
+  @Test
+  @DisplayName("Should apply bulk adjustments in order and flush their net delta")
+  void adjust_shouldApplyInOrderAndFlushNetDelta() {
+    // Arrange
+    when(productRepository.findById(99L)).thenReturn(Optional.empty());
+
+    // Act
+    boolean[] applied =
+        engine.adjust(
+            List.of(
+                StockAdjustment.absolute(15L, 10),
+                StockAdjustment.delta(15L, -12),
+                StockAdjustment.delta(15L, -3),
+                StockAdjustment.delta(99L, 1)));
+    engine.flush();
+
+    // Assert
+    assertArrayEquals(new boolean[] {true, false, true, false}, applied);
+    assertEquals(7, engine.availableStock(15L));
+    assertEquals(Map.of(15L, 3L), written);
+  }
+
+  @Test
+  @DisplayName("Should reject a delta that would push stock past the int stock column")
+  void adjust_shouldRejectDeltaBeyondIntRange() {
+    // Act
+    boolean[] applied =
+        engine.adjust(
+            List.of(
+                StockAdjustment.absolute(15L, Integer.MAX_VALUE - 1),
+                StockAdjustment.delta(15L, 2),
+                StockAdjustment.delta(15L, 1)));
+
+    // Assert
+    assertArrayEquals(new boolean[] {true, false, true}, applied);
+    assertEquals(Integer.MAX_VALUE, engine.availableStock(15L));
+  }
+}
@@ -0,0 +1,208 @@
+package com.electronics.store.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.model.Product;
+import com.electronics.store.model.ProductCategory;
+import com.electronics.store.model.StockBucket;
+import com.electronics.store.repository.ProductRepository;
+import com.electronics.store.repository.StockBucketRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockBucketsTest {
+  private static final Long POPULAR_ITEM_ID = 21L;
+
+  @Mock private StockBucketRepository stockBucketRepository;
+
+  @Mock private ProductRepository productRepository;
+
+  private StockBuckets stockBuckets;
+
+  @BeforeEach
+  void setUp() {
+    stockBuckets = new StockBuckets(stockBucketRepository, productRepository);
+    when(stockBucketRepository.countByProduct())
+        .thenReturn(List.<Object[]>of(new Object[] {POPULAR_ITEM_ID, 4L}));
+    stockBuckets.refresh();
+  }
+
+  @Test
+  @DisplayName("Should take from a single bucket when one holds enough")
+  void tryTake_shouldTakeFromOneBucket() {
+    // Arrange
+    when(stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(POPULAR_ITEM_ID, 0))
+        .thenReturn(
+            List.of(
+                new StockBucket(1L, POPULAR_ITEM_ID, 0, 2),
+                new StockBucket(2L, POPULAR_ITEM_ID, 3, 4)));
+    when(stockBucketRepository.takeIfAvailable(POPULAR_ITEM_ID, 3, 3)).thenReturn(1);
+
+    // Act & Assert
+    assertTrue(stockBuckets.tryTake(POPULAR_ITEM_ID, 3));
+    verify(stockBucketRepository).takeIfAvailable(POPULAR_ITEM_ID, 3, 3);
+    verify(stockBucketRepository, never()).takeIfAvailable(eq(POPULAR_ITEM_ID), eq(0), anyInt());
+  }
+
+  @Test
+  @DisplayName("Should take from several buckets in bucket order when none holds enough")
+  void tryTake_shouldTakeFromSeveralBucketsInOrder() {
+    // Arrange
+    when(stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(POPULAR_ITEM_ID, 0))
+        .thenReturn(
+            List.of(
+                new StockBucket(1L, POPULAR_ITEM_ID, 0, 2),
+                new StockBucket(2L, POPULAR_ITEM_ID, 3, 4)));
+    when(stockBucketRepository.takeIfAvailable(eq(POPULAR_ITEM_ID), anyInt(), anyInt()))
+        .thenReturn(1);
+
+    // Act & Assert
+    assertTrue(stockBuckets.tryTake(POPULAR_ITEM_ID, 5));
+    InOrder inOrder = inOrder(stockBucketRepository);
+    inOrder.verify(stockBucketRepository).takeIfAvailable(POPULAR_ITEM_ID, 0, 2);
+    inOrder.verify(stockBucketRepository).takeIfAvailable(POPULAR_ITEM_ID, 3, 3);
+  }
+
+  @Test
+  @DisplayName("Should take nothing when buckets and product row together hold too little")
+  void tryTake_shouldTakeNothingWhenBucketsHoldTooLittle() {
+    // Arrange
+    when(stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(POPULAR_ITEM_ID, 0))
+        .thenReturn(List.of());
+
+    // Act & Assert
+    assertFalse(stockBuckets.tryTake(POPULAR_ITEM_ID, 5));
+    verify(productRepository).decrementStockIfAvailable(POPULAR_ITEM_ID, 5);
+    verify(stockBucketRepository, never()).takeIfAvailable(eq(POPULAR_ITEM_ID), anyInt(), anyInt());
+    verify(stockBucketRepository, never()).put(eq(POPULAR_ITEM_ID), anyInt(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Should re-read and take from another bucket when a concurrent take empties one")
+  void tryTake_shouldRetryOtherBucketWhenBucketEmptiedConcurrently() {
+    // Arrange
+    when(stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(POPULAR_ITEM_ID, 0))
+        .thenReturn(List.of(new StockBucket(1L, POPULAR_ITEM_ID, 0, 5)))
+        .thenReturn(List.of(new StockBucket(2L, POPULAR_ITEM_ID, 2, 6)));
+    when(stockBucketRepository.takeIfAvailable(POPULAR_ITEM_ID, 0, 5)).thenReturn(0);
+    when(stockBucketRepository.takeIfAvailable(POPULAR_ITEM_ID, 2, 5)).thenReturn(1);
+
+    // Act & Assert
+    assertTrue(stockBuckets.tryTake(POPULAR_ITEM_ID, 5));
+    verify(productRepository, never()).decrementStockIfAvailable(eq(POPULAR_ITEM_ID), anyInt());
+  }
+
+  @Test
+  @DisplayName("Should take what the buckets cannot cover from the product row")
+  void tryTake_shouldFallBackToProductRow() {
+    // Arrange
+    when(stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(POPULAR_ITEM_ID, 0))
+        .thenReturn(List.of(new StockBucket(1L, POPULAR_ITEM_ID, 1, 2)))
+        .thenReturn(List.of());
+    when(stockBucketRepository.takeIfAvailable(POPULAR_ITEM_ID, 1, 2)).thenReturn(1);
+    when(productRepository.decrementStockIfAvailable(POPULAR_ITEM_ID, 3)).thenReturn(1);
+
+    // Act & Assert
+    assertTrue(stockBuckets.tryTake(POPULAR_ITEM_ID, 5));
+    verify(stockBucketRepository, never()).put(eq(POPULAR_ITEM_ID), anyInt(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Should put partial takes back and report failure when stock is really short")
+  void tryTake_shouldPutPartialTakesBackWhenShort() {
+    // Arrange
+    when(stockBucketRepository.findByProductIdAndStockGreaterThanOrderByBucket(POPULAR_ITEM_ID, 0))
+        .thenReturn(
+            List.of(
+                new StockBucket(1L, POPULAR_ITEM_ID, 0, 2),
+                new StockBucket(2L, POPULAR_ITEM_ID, 3, 4)))
+        .thenReturn(List.of());
+    when(stockBucketRepository.takeIfAvailable(POPULAR_ITEM_ID, 0, 2)).thenReturn(1);
+    when(stockBucketRepository.takeIfAvailable(POPULAR_ITEM_ID, 3, 3)).thenReturn(0);
+    when(productRepository.decrementStockIfAvailable(POPULAR_ITEM_ID, 3)).thenReturn(0);
+
+    // Act & Assert
+    assertFalse(stockBuckets.tryTake(POPULAR_ITEM_ID, 5));
+    verify(stockBucketRepository).put(POPULAR_ITEM_ID, 0, 2);
+  }
+
+  @Test
+  @DisplayName("Should spread row and bucket stock evenly over the new buckets")
+  @SuppressWarnings("unchecked")
+  void split_shouldDistributeStockEvenly() {
+    // Arrange
+    Product popularItem =
+        new Product(
+            POPULAR_ITEM_ID, "Popular Item X", ProductCategory.ELECTRONICS, BigDecimal.TEN, 198);
+    when(productRepository.lockById(POPULAR_ITEM_ID)).thenReturn(Optional.of(popularItem));
+    when(stockBucketRepository.lockByProductId(POPULAR_ITEM_ID))
+        .thenReturn(List.of(new StockBucket(1L, POPULAR_ITEM_ID, 0, 2)));
+
+    // Act
+    stockBuckets.split(POPULAR_ITEM_ID, 3);
+
+    // Assert
+    ArgumentCaptor<List<StockBucket>> rows = ArgumentCaptor.forClass(List.class);
+    verify(stockBucketRepository).deleteByProductId(POPULAR_ITEM_ID);
+    verify(productRepository).setStock(POPULAR_ITEM_ID, 0);
+    verify(stockBucketRepository).saveAll(rows.capture());
+    assertEquals(
+        List.of(67, 67, 66), rows.getValue().stream().map(StockBucket::getStock).toList());
+    assertTrue(stockBuckets.isSplit(POPULAR_ITEM_ID));
+  }
+
+  @Test
+  @DisplayName("Should merge everything back onto the product row when split into one bucket")
+  void split_shouldMergeBackWithOneBucket() {
+    // Arrange
+    Product popularItem =
+        new Product(
+            POPULAR_ITEM_ID, "Popular Item X", ProductCategory.ELECTRONICS, BigDecimal.TEN, 0);
+    when(productRepository.lockById(POPULAR_ITEM_ID)).thenReturn(Optional.of(popularItem));
+    when(stockBucketRepository.lockByProductId(POPULAR_ITEM_ID))
+        .thenReturn(
+            List.of(
+                new StockBucket(1L, POPULAR_ITEM_ID, 0, 5),
+                new StockBucket(2L, POPULAR_ITEM_ID, 1, 7)));
+
+    // Act
+    stockBuckets.split(POPULAR_ITEM_ID, 1);
+
+    // Assert
+    verify(productRepository).setStock(POPULAR_ITEM_ID, 12);
+    verify(stockBucketRepository, never()).saveAll(anyList());
+    assertFalse(stockBuckets.isSplit(POPULAR_ITEM_ID));
+  }
+
+  @Test
+  @DisplayName("Should reject bucket counts outside the supported range")
+  void split_shouldRejectInvalidBucketCount() {
+    assertThrows(IllegalArgumentException.class, () -> stockBuckets.split(POPULAR_ITEM_ID, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> stockBuckets.split(POPULAR_ITEM_ID, StockBuckets.MAX_BUCKETS + 1));
+  }
+}
@@ -0,0 +1,165 @@
+package com.electronics.store.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class MappedStockLedgerTest {
+  // Room for 64 records per segment, so the tests roll over several segments.
+  private static final int SEGMENT_SIZE = MappedStockLedger.RECORD_SIZE * 64;
+
+  @TempDir Path ledgerDirectory;
+
+  @Test
+  @DisplayName("Should report no history the first time the ledger runs")
+  void recover_shouldReportNoHistoryOnFirstRun() throws IOException {
+    // Act
+    Map<Long, Long> levels = new HashMap<>();
+    boolean hadHistory = newLedger().recover(levels::put);
+
+    // Assert
+    assertFalse(hadHistory);
+    assertTrue(levels.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should rebuild stock levels from the ledger after a crash")
+  void recover_shouldReplayLedgerAfterCrash() throws IOException {
+    // Arrange : record, then "crash" without a snapshot
+    MappedStockLedger ledger = newLedger();
+    ledger.recover((productId, stock) -> {});
+    ledger.record(StockMovement.PRODUCT_CREATED, 1L, 10);
+    ledger.record(StockMovement.PRODUCT_CREATED, 2L, 50);
+    ledger.record(StockMovement.PRODUCT_CREATED, 3L, 20);
+    ledger.record(StockMovement.BASKET_RESERVED, 1L, -3);
+    ledger.record(StockMovement.BASKET_RELEASED, 1L, 1);
+    ledger.record(StockMovement.RESTOCK_SET, 2L, 7);
+    ledger.record(StockMovement.PRODUCT_DELETED, 3L, 0);
+
+    // Act
+    Map<Long, Long> levels = new HashMap<>();
+    boolean hadHistory = newLedger().recover(levels::put);
+
+    // Assert
+    assertTrue(hadHistory);
+    assertEquals(Map.of(1L, 8L, 2L, 7L), levels);
+  }
+
+  @Test
+  @DisplayName("Should replay the snapshot plus only the records appended after it")
+  void recover_shouldCombineSnapshotAndLaterRecords() throws IOException {
+    // Arrange
+    MappedStockLedger ledger = newLedger();
+    ledger.recover((productId, stock) -> {});
+    for (int i = 0; i < 100; i++) {
+      ledger.record(StockMovement.RESTOCK_DELTA, 22L, 2);
+    }
+    ledger.snapshot();
+    ledger.record(StockMovement.BASKET_RESERVED, 22L, -5);
+
+    // Act
+    Map<Long, Long> levels = new HashMap<>();
+    newLedger().recover(levels::put);
+
+    // Assert
+    assertEquals(Map.of(22L, 195L), levels);
+  }
+
+  @Test
+  @DisplayName(
+      "Concurrent appends across segment rollovers and snapshots should never lose records")
+  void record_concurrentAppendsShouldNotLoseRecords() throws Exception {
+    // Arrange
+    MappedStockLedger ledger = newLedger();
+    ledger.recover((productId, stock) -> {});
+    ledger.record(StockMovement.PRODUCT_CREATED, 22L, 0);
+    ExecutorService writers = Executors.newFixedThreadPool(8);
+
+    // Act
+    for (int t = 0; t < 8; t++) {
+      writers.submit(
+          () -> {
+            for (int i = 0; i < 500; i++) {
+              ledger.record(StockMovement.RESTOCK_DELTA, 22L, 1);
+              if (i % 100 == 0) {
+                ledger.snapshot();
+              }
+            }
+          });
+    }
+    writers.shutdown();
+    assertTrue(writers.awaitTermination(30, TimeUnit.SECONDS));
+    ledger.close();
+
+    // Assert
+    Map<Long, Long> levels = new HashMap<>();
+    newLedger().recover(levels::put);
+    assertEquals(Map.of(22L, 4000L), levels);
+    try (Stream<Path> files = Files.list(ledgerDirectory)) {
+      assertTrue(files.filter(file -> file.toString().endsWith(".segment")).count() > 1);
+    }
+  }
+
+  @Test
+  @DisplayName("Should buffer a transaction's records once and append them only on commit")
+  void record_shouldAppendTransactionRecordsOnCommitOnly() throws IOException {
+    // Arrange
+    MappedStockLedger ledger = newLedger();
+    ledger.recover((productId, stock) -> {});
+    ledger.record(StockMovement.PRODUCT_CREATED, 22L, 0);
+
+    // Act
+    inTransaction(
+        TransactionSynchronization.STATUS_COMMITTED,
+        () -> {
+          ledger.record(StockMovement.RESTOCK_DELTA, 22L, 5);
+          ledger.record(StockMovement.RESTOCK_DELTA, 22L, 2);
+          assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        });
+    inTransaction(
+        TransactionSynchronization.STATUS_ROLLED_BACK,
+        () -> ledger.record(StockMovement.RESTOCK_DELTA, 22L, 100));
+    ledger.close();
+
+    // Assert
+    Map<Long, Long> levels = new HashMap<>();
+    newLedger().recover(levels::put);
+    assertEquals(Map.of(22L, 7L), levels);
+  }
+
+  private static void inTransaction(int status, Runnable work) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      work.run();
+      for (TransactionSynchronization synchronization :
+          TransactionSynchronizationManager.getSynchronizations()) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+          synchronization.afterCommit();
+        }
+        synchronization.afterCompletion(status);
+      }
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private MappedStockLedger newLedger() throws IOException {
+    return new MappedStockLedger(ledgerDirectory, SEGMENT_SIZE, Clock.systemUTC());
+  }
+}
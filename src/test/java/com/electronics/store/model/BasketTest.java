@@ -0,0 +1,94 @@
+package com.electronics.store.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.electronics.store.basket.BasketItemStorage;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BasketTest {
+  private Basket basket;
+
+  @BeforeEach
+  void setUp() {
+    basket = new Basket("customer");
+    basket.addItem(1L, 1);
+    basket.addItem(2L, 2);
+    basket.addItem(3L, 3);
+  }
+
+  @Test
+  @DisplayName("Should merge units into the existing line of a product")
+  void addItem_shouldMergeIntoExistingLine() {
+    // Act
+    basket.addItem(2L, 5);
+
+    // Assert
+    assertEquals(3, basket.getItems().size());
+    assertEquals(7, basket.findItem(2L).getQuantity());
+  }
+
+  @Test
+  @DisplayName("Should keep the order of the remaining lines when one is dropped")
+  void removeItem_shouldKeepLineOrder() {
+    // Act
+    int removed = basket.removeItem(1L, 5);
+
+    // Assert
+    assertEquals(1, removed);
+    assertNull(basket.findItem(1L));
+    assertEquals(
+        List.of(2L, 3L), basket.getItems().stream().map(BasketItem::getProductId).toList());
+    assertEquals(3, basket.findItem(3L).getQuantity());
+  }
+
+  @Test
+  @DisplayName("Should find lines added to the item list directly")
+  void findItem_shouldSeeDirectListEdits() {
+    // Arrange
+    basket.getItems().add(new BasketItem(4L, 4));
+    basket.getItems().set(0, new BasketItem(5L, 5));
+
+    // Act & Assert
+    assertEquals(4, basket.findItem(4L).getQuantity());
+    assertEquals(5, basket.findItem(5L).getQuantity());
+    assertNull(basket.findItem(1L));
+  }
+
+  @Test
+  @DisplayName("Should read back the lines written in compact storage, in order")
+  void storeItems_shouldRoundTripCompactStorage() {
+    // Arrange
+    basket.addItem(300L, 1000);
+
+    // Act
+    basket.storeItems(BasketItemStorage.COMPACT);
+    basket.setItems(null);
+    basket.loadItems();
+
+    // Assert
+    assertEquals(
+        List.of(
+            new BasketItem(1L, 1),
+            new BasketItem(2L, 2),
+            new BasketItem(3L, 3),
+            new BasketItem(300L, 1000)),
+        basket.getItems());
+  }
+
+  @Test
+  @DisplayName("Should see a line replaced in place once the basket has been indexed")
+  void findItem_shouldSeeLineReplacedInPlace() {
+    // Arrange
+    assertEquals(1, basket.findItem(1L).getQuantity());
+    basket.getItems().set(1, new BasketItem(5L, 5));
+
+    // Act & Assert
+    assertEquals(5, basket.findItem(5L).getQuantity());
+    assertNull(basket.findItem(2L));
+    assertEquals(3, basket.findItem(3L).getQuantity());
+  }
+}
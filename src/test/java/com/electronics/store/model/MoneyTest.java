@@ -0,0 +1,66 @@
+package com.electronics.store.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  @DisplayName("Should round fractions of a cent exactly like BigDecimal for every rounding mode")
+  void times_shouldRoundLikeBigDecimal() {
+    Random random = new Random(42);
+    for (int i = 0; i < 20_000; i++) {
+      long minorUnits = random.nextInt(2_000_001) - 1_000_000;
+      long numerator = random.nextInt(21) - 10;
+      long denominator = 1 + random.nextInt(12);
+      for (RoundingMode roundingMode : RoundingMode.values()) {
+        if (roundingMode == RoundingMode.UNNECESSARY) {
+          continue;
+        }
+        long expected =
+            BigDecimal.valueOf(minorUnits)
+                .multiply(BigDecimal.valueOf(numerator))
+                .divide(BigDecimal.valueOf(denominator), 0, roundingMode)
+                .longValueExact();
+
+        assertEquals(
+            expected,
+            Money.ofMinor(minorUnits).times(numerator, denominator, roundingMode).minorUnits());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should convert from and to BigDecimal with two decimal places")
+  void of_shouldConvertWithExplicitRounding() {
+    assertEquals(Money.ofMinor(2000), Money.of(new BigDecimal("19.995"), RoundingMode.HALF_UP));
+    assertEquals(Money.ofMinor(1999), Money.of(new BigDecimal("19.995"), RoundingMode.DOWN));
+    assertEquals(
+        new BigDecimal("1200.00"),
+        Money.of(BigDecimal.valueOf(1200), RoundingMode.UNNECESSARY).toBigDecimal());
+    assertThrows(
+        ArithmeticException.class,
+        () -> Money.of(new BigDecimal("0.001"), RoundingMode.UNNECESSARY));
+  }
+
+  @Test
+  @DisplayName("Should throw instead of overflowing")
+  void plus_shouldThrowOnOverflow() {
+    assertThrows(
+        ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).times(2));
+  }
+
+  @Test
+  @DisplayName("Should be written to JSON as a plain decimal number")
+  void toBigDecimal_shouldBeTheJsonRepresentation() throws Exception {
+    assertEquals("1250.50", new ObjectMapper().writeValueAsString(Money.ofMinor(125_050)));
+  }
+}
@@ -0,0 +1,59 @@
+package com.electronics.store.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.electronics.store.model.DealType;
+import com.electronics.store.model.Money;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class Bogo50PricingEngineTest {
+  private final Bogo50PricingEngine engine = new Bogo50PricingEngine();
+
+  @Test
+  @DisplayName("Should charge every second unit at half price")
+  void lineTotal_shouldDiscountEverySecondUnit() {
+    Money price = Money.ofMinor(2500);
+
+    assertEquals(Money.ZERO, engine.lineTotal(price, 0));
+    assertEquals(Money.ofMinor(2500), engine.lineTotal(price, 1));
+    assertEquals(Money.ofMinor(3750), engine.lineTotal(price, 2));
+    assertEquals(Money.ofMinor(6250), engine.lineTotal(price, 3));
+    assertEquals(Money.ofMinor(1250), engine.priceAfterDeal(price));
+  }
+
+  @Test
+  @DisplayName("Should round half cents of the discounted price up")
+  void priceAfterDeal_shouldRoundHalfCentsUp() {
+    assertEquals(Money.ofMinor(1000), engine.priceAfterDeal(Money.ofMinor(1999)));
+    assertEquals(Money.ofMinor(2999), engine.lineTotal(Money.ofMinor(1999), 2));
+  }
+
+  @Test
+  @DisplayName("Should match the unit-by-unit total for any quantity")
+  void lineTotal_shouldMatchUnitByUnitTotal() {
+    Money price = Money.ofMinor(1999);
+    for (int quantity = 0; quantity <= 101; quantity++) {
+      Money expected = Money.ZERO;
+      for (int unit = 0; unit < quantity; unit++) {
+        expected = expected.plus(unit % 2 == 1 ? engine.priceAfterDeal(price) : price);
+      }
+
+      assertEquals(expected, engine.lineTotal(price, quantity));
+    }
+  }
+
+  @Test
+  @DisplayName("Should look engines up by deal type and reject two engines for one type")
+  void pricingEngines_shouldRegisterOneEnginePerDealType() {
+    PricingEngines pricingEngines = new PricingEngines(List.of(engine));
+
+    assertSame(engine, pricingEngines.find(DealType.BOGO50).orElseThrow());
+    assertThrows(
+        IllegalStateException.class,
+        () -> new PricingEngines(List.of(engine, new Bogo50PricingEngine())));
+  }
+}
@@ -0,0 +1,67 @@
+package com.electronics.store.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.electronics.store.model.Money;
+import com.electronics.store.model.Receipt;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ReceiptCacheTest {
+  private final ReceiptCache receiptCache = new ReceiptCache(new SimpleMeterRegistry(), 2);
+  private final AtomicInteger pricings = new AtomicInteger();
+
+  @Test
+  @DisplayName("Should price again once any version in the key moves")
+  void get_shouldPriceAgainWhenKeyChanges() {
+    // Arrange
+    ReceiptCache.Key key = new ReceiptCache.Key(1L, 3L, 0L, 0L);
+
+    // Act
+    Receipt first = receiptCache.get("alice", key, pricing());
+    Receipt second = receiptCache.get("alice", key, pricing());
+    receiptCache.get("alice", new ReceiptCache.Key(1L, 4L, 0L, 0L), pricing());
+    receiptCache.get("alice", new ReceiptCache.Key(1L, 4L, 1L, 0L), pricing());
+    receiptCache.get("alice", new ReceiptCache.Key(1L, 4L, 1L, 1L), pricing());
+
+    // Assert
+    assertSame(first, second);
+    assertEquals(4, pricings.get());
+    assertEquals(1, receiptCache.size());
+  }
+
+  @Test
+  @DisplayName("Should drop the least recently used user beyond the size limit")
+  void get_shouldEvictLeastRecentlyUsedUser() {
+    // Arrange
+    ReceiptCache.Key key = new ReceiptCache.Key(1L, 0L, 0L, 0L);
+    receiptCache.get("alice", key, pricing());
+    receiptCache.get("bob", key, pricing());
+    receiptCache.get("alice", key, pricing());
+
+    // Act
+    receiptCache.get("carol", key, pricing());
+    receiptCache.get("alice", key, pricing());
+    receiptCache.get("bob", key, pricing());
+
+    // Assert
+    assertEquals(4, pricings.get());
+    assertEquals(2, receiptCache.size());
+  }
+
+  private Supplier<Receipt> pricing() {
+    return () -> {
+      pricings.incrementAndGet();
+      return Receipt.builder()
+          .items(List.of())
+          .dealsApplied(List.of())
+          .totalPrice(Money.ZERO)
+          .build();
+    };
+  }
+}
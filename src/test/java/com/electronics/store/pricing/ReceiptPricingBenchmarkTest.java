@@ -0,0 +1,116 @@
+package com.electronics.store.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.electronics.store.model.Money;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares pricing a 10,000-line receipt with {@link BigDecimal} arithmetic against {@link Money}.
+ * Skipped by default; run it with {@code ./mvnw test -Dtest=ReceiptPricingBenchmarkTest
+ * -Dbenchmarks=true}. Timings are logged; the test only asserts that Money is faster.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ReceiptPricingBenchmarkTest {
+  private static final int LINES = 10_000;
+  private static final int WARMUP_ROUNDS = 200;
+  private static final int MEASURED_ROUNDS = 500;
+  private static final BigDecimal HALF = BigDecimal.valueOf(0.5);
+
+  private final BigDecimal[] prices = new BigDecimal[LINES];
+  private final Money[] moneyPrices = new Money[LINES];
+  private final int[] quantities = new int[LINES];
+  private final boolean[] discounted = new boolean[LINES];
+  private final Bogo50PricingEngine engine = new Bogo50PricingEngine();
+  // Consumes every result so the JIT cannot drop the work being measured.
+  private int sink;
+
+  ReceiptPricingBenchmarkTest() {
+    Random random = new Random(7);
+    for (int line = 0; line < LINES; line++) {
+      // Even numbers of cents halve exactly, so both ways of pricing must agree to the cent.
+      prices[line] = BigDecimal.valueOf(2 * (50 + random.nextInt(100_000)), 2);
+      moneyPrices[line] = Money.of(prices[line], RoundingMode.UNNECESSARY);
+      quantities[line] = 1 + random.nextInt(50);
+      discounted[line] = random.nextBoolean();
+    }
+  }
+
+  @Test
+  @DisplayName("Should price a large receipt faster with Money than with BigDecimal")
+  void priceLargeReceipt() {
+    assertEquals(0, priceWithBigDecimal().compareTo(priceWithMoney(false).toBigDecimal()));
+
+    long bigDecimalNanos = measure(this::priceWithBigDecimal);
+    long moneyNanos = measure(() -> priceWithMoney(true));
+    long preconvertedNanos = measure(() -> priceWithMoney(false));
+
+    log.info(
+        "Pricing {} lines: BigDecimal {} us, Money {} us ({}x), "
+            + "Money with prices already converted {} us ({}x)",
+        LINES,
+        bigDecimalNanos / 1_000,
+        moneyNanos / 1_000,
+        String.format("%.1f", (double) bigDecimalNanos / moneyNanos),
+        preconvertedNanos / 1_000,
+        String.format("%.1f", (double) bigDecimalNanos / preconvertedNanos));
+    assertTrue(
+        moneyNanos < bigDecimalNanos,
+        String.format("Money took %,d ns, BigDecimal %,d ns", moneyNanos, bigDecimalNanos));
+  }
+
+  private BigDecimal priceWithBigDecimal() {
+    BigDecimal total = BigDecimal.ZERO;
+    for (int line = 0; line < LINES; line++) {
+      BigDecimal price = prices[line];
+      int quantity = quantities[line];
+      BigDecimal lineTotal;
+      if (discounted[line]) {
+        int half = quantity / 2;
+        lineTotal =
+            price
+                .multiply(BigDecimal.valueOf(quantity - half))
+                .add(price.multiply(HALF).multiply(BigDecimal.valueOf(half)));
+      } else {
+        lineTotal = price.multiply(BigDecimal.valueOf(quantity));
+      }
+      total = total.add(lineTotal);
+    }
+    return total;
+  }
+
+  // Converting each product price mirrors BasketService, which reads BigDecimal prices.
+  private Money priceWithMoney(boolean convertPrices) {
+    Money total = Money.ZERO;
+    for (int line = 0; line < LINES; line++) {
+      Money price =
+          convertPrices ? Money.of(prices[line], RoundingMode.HALF_UP) : moneyPrices[line];
+      Money lineTotal =
+          discounted[line]
+              ? engine.lineTotal(price, quantities[line])
+              : price.times(quantities[line]);
+      total = total.plus(lineTotal);
+    }
+    return total;
+  }
+
+  private long measure(Supplier<Object> pricing) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      sink ^= pricing.get().hashCode();
+    }
+    long start = System.nanoTime();
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      sink ^= pricing.get().hashCode();
+    }
+    return (System.nanoTime() - start) / MEASURED_ROUNDS;
+  }
+}
@@ -0,0 +1,111 @@
+package com.electronics.store.reservation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.electronics.store.reservation.HierarchicalTimingWheel.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+  private static final long TICK = 1000;
+
+  @Test
+  @DisplayName("Should fire timers on their deadline tick, never before")
+  void advanceTo_shouldFireTimersOnDeadline() {
+    // Arrange
+    HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+    wheel.schedule("soon", 5_000);
+    wheel.schedule("later", 90_000);
+    List<String> fired = new ArrayList<>();
+
+    // Act & Assert
+    wheel.advanceTo(4_999, fired::add);
+    assertTrue(fired.isEmpty());
+    wheel.advanceTo(5_000, fired::add);
+    assertEquals(List.of("soon"), fired);
+    wheel.advanceTo(89_999, fired::add);
+    assertEquals(List.of("soon"), fired);
+    wheel.advanceTo(90_000, fired::add);
+    assertEquals(List.of("soon", "later"), fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  @DisplayName("Should cascade timers from every level down to their exact tick")
+  void advanceTo_shouldCascadeAcrossAllLevels() {
+    // Arrange : deadlines spread over every level, including beyond the wheel span
+    HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+    Random random = new Random(7);
+    List<Long> deadlines = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      long ticks = 1 + (long) (random.nextDouble() * (1L << (6 * (1 + random.nextInt(4)))));
+      deadlines.add(ticks * TICK);
+    }
+    deadlines.add((1L << 25) * TICK);
+    deadlines.forEach(deadline -> wheel.schedule(deadline, deadline));
+    List<Long> fired = new ArrayList<>();
+
+    // Act : advance in uneven steps, checking nothing fires early or late
+    long now = 0;
+    while (wheel.size() > 0) {
+      now += 1 + random.nextInt(50_000) * TICK;
+      long bound = now;
+      wheel.advanceTo(
+          now,
+          deadline -> {
+            assertTrue(deadline <= bound, "fired early");
+            fired.add(deadline);
+          });
+      for (Long deadline : fired) {
+        assertTrue(deadline > bound - 50_000 * TICK - 1, "fired late");
+      }
+      fired.clear();
+    }
+
+    // Assert
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  @DisplayName("Should not fire cancelled timers and should move rescheduled ones")
+  void cancelAndReschedule_shouldUpdateTimers() {
+    // Arrange
+    HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+    Timer<String> cancelled = wheel.schedule("cancelled", 3_000);
+    Timer<String> moved = wheel.schedule("moved", 3_000);
+    List<String> fired = new ArrayList<>();
+
+    // Act
+    assertTrue(wheel.cancel(cancelled));
+    assertFalse(wheel.cancel(cancelled));
+    wheel.reschedule(moved, 200_000);
+    wheel.advanceTo(100_000, fired::add);
+
+    // Assert
+    assertTrue(fired.isEmpty());
+    assertEquals(1, wheel.size());
+    wheel.advanceTo(200_000, fired::add);
+    assertEquals(List.of("moved"), fired);
+  }
+
+  @Test
+  @DisplayName("Should fire timers scheduled in the past on the next tick")
+  void schedule_shouldFireOverdueTimersOnNextTick() {
+    // Arrange
+    HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+    wheel.advanceTo(10_000, ignored -> {});
+    wheel.schedule("overdue", 1_000);
+    List<String> fired = new ArrayList<>();
+
+    // Act
+    wheel.advanceTo(11_000, fired::add);
+
+    // Assert
+    assertEquals(List.of("overdue"), fired);
+  }
+}
@@ -0,0 +1,203 @@
+package com.electronics.store.reservation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.basket.BasketItemStorage;
+import com.electronics.store.basket.RepositoryBasketStore;
+import com.electronics.store.concurrency.OptimisticRetry;
+import com.electronics.store.ledger.StockMovement;
+import com.electronics.store.model.Basket;
+import com.electronics.store.model.BasketItem;
+import com.electronics.store.repository.BasketRepository;
+import com.electronics.store.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionOperations;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReservationSweeperTest {
+  private static final String CUSTOMER_USER_ID = "customer";
+
+  @Mock private BasketRepository basketRepository;
+
+  @Mock private ProductService productService;
+
+  private MutableClock clock;
+  private BasketReservations basketReservations;
+  private ReservationSweeper reservationSweeper;
+  private Basket customerBasket;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    basketReservations = new BasketReservations(clock, Duration.ofMinutes(30), Duration.ofSeconds(10), 1000);
+    reservationSweeper =
+        new ReservationSweeper(
+            basketReservations,
+            new RepositoryBasketStore(basketRepository, BasketItemStorage.COLLECTION, clock),
+            productService,
+            TransactionOperations.withoutTransaction(),
+            new OptimisticRetry(new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO));
+    customerBasket = new Basket(1L, CUSTOMER_USER_ID, new ArrayList<>());
+    when(basketRepository.findByUserId(CUSTOMER_USER_ID)).thenReturn(Optional.of(customerBasket));
+  }
+
+  @Test
+  @DisplayName("Should drop expired lines and return their stock in one batch")
+  void sweep_shouldDropExpiredLinesAndReturnStock() {
+    // Arrange
+    customerBasket.getItems().add(new BasketItem(1L, 2));
+    customerBasket.getItems().add(new BasketItem(2L, 5));
+    basketReservations.hold(CUSTOMER_USER_ID, 1L, 2);
+    basketReservations.hold(CUSTOMER_USER_ID, 2L, 5);
+    when(basketRepository.save(customerBasket)).thenReturn(customerBasket);
+
+    // Act
+    clock.advance(Duration.ofMinutes(31));
+    reservationSweeper.sweep();
+
+    // Assert
+    assertTrue(customerBasket.getItems().isEmpty());
+    verify(productService, times(1))
+        .releaseStock(Map.of(1L, 2, 2L, 5), StockMovement.RESERVATION_EXPIRED);
+    verify(basketRepository, times(1)).save(customerBasket);
+    assertEquals(0, basketReservations.size());
+  }
+
+  @Test
+  @DisplayName("Should keep lines that were touched within the TTL")
+  void sweep_shouldKeepRecentlyTouchedLines() {
+    // Arrange
+    customerBasket.getItems().add(new BasketItem(1L, 3));
+    basketReservations.hold(CUSTOMER_USER_ID, 1L, 2);
+    clock.advance(Duration.ofMinutes(20));
+    basketReservations.hold(CUSTOMER_USER_ID, 1L, 1);
+
+    // Act
+    clock.advance(Duration.ofMinutes(20));
+    reservationSweeper.sweep();
+
+    // Assert
+    assertEquals(3, customerBasket.getItems().get(0).getQuantity());
+    verify(productService, never()).releaseStock(anyMap(), any());
+    assertEquals(1, basketReservations.size());
+  }
+
+  @Test
+  @DisplayName("Should only return the units the expired reservation held")
+  void sweep_shouldOnlyReturnExpiredUnits() {
+    // Arrange : 2 units reserved, 1 released by the customer, line re-added after a restart
+    customerBasket.getItems().add(new BasketItem(1L, 4));
+    basketReservations.hold(CUSTOMER_USER_ID, 1L, 2);
+    basketReservations.release(CUSTOMER_USER_ID, 1L, 1);
+    when(basketRepository.save(customerBasket)).thenReturn(customerBasket);
+
+    // Act
+    clock.advance(Duration.ofMinutes(31));
+    reservationSweeper.sweep();
+
+    // Assert
+    assertEquals(3, customerBasket.getItems().get(0).getQuantity());
+    verify(productService, times(1))
+        .releaseStock(Map.of(1L, 1), StockMovement.RESERVATION_EXPIRED);
+  }
+
+  @Test
+  @DisplayName("Should schedule reservations again when their stock could not be returned")
+  void sweep_shouldRetryFailedReservationsAfterDelay() {
+    // Arrange
+    when(basketRepository.findByUserId(CUSTOMER_USER_ID))
+        .thenAnswer(
+            invocation ->
+                Optional.of(
+                    new Basket(
+                        1L, CUSTOMER_USER_ID, new ArrayList<>(List.of(new BasketItem(1L, 2))))));
+    when(basketRepository.save(any(Basket.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    doThrow(new IllegalStateException("database down"))
+        .doNothing()
+        .when(productService)
+        .releaseStock(anyMap(), any());
+    basketReservations.hold(CUSTOMER_USER_ID, 1L, 2);
+    clock.advance(Duration.ofMinutes(31));
+
+    // Act
+    reservationSweeper.sweep();
+
+    // Assert
+    assertEquals(1, basketReservations.size());
+
+    // Act 2
+    clock.advance(Duration.ofSeconds(11));
+    reservationSweeper.sweep();
+
+    // Assert 2
+    verify(productService, times(2))
+        .releaseStock(Map.of(1L, 2), StockMovement.RESERVATION_EXPIRED);
+    assertEquals(0, basketReservations.size());
+  }
+
+  @Test
+  @DisplayName("Should forget reservations released entirely by the customer")
+  void release_shouldCancelFullyReleasedReservation() {
+    // Arrange
+    basketReservations.hold(CUSTOMER_USER_ID, 1L, 2);
+
+    // Act
+    basketReservations.release(CUSTOMER_USER_ID, 1L, 2);
+    clock.advance(Duration.ofHours(1));
+    reservationSweeper.sweep();
+
+    // Assert
+    assertEquals(0, basketReservations.size());
+    verify(basketRepository, never()).findByUserId(CUSTOMER_USER_ID);
+  }
+
+  static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -2,51 +2,76 @@ package com.electronics.store.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.electronics.store.basket.BasketItemStorage;
+import com.electronics.store.basket.RepositoryBasketStore;
+import com.electronics.store.catalog.CatalogVersions;
+import com.electronics.store.catalog.DealIndex;
+import com.electronics.store.concurrency.OptimisticRetry;
+import com.electronics.store.concurrency.UserMailboxes;
+import com.electronics.store.dto.BasketOperation;
+import com.electronics.store.dto.BasketOperationType;
 import com.electronics.store.exception.InsufficientStockException;
 import com.electronics.store.exception.ProductNotFoundException;
 import com.electronics.store.model.Basket;
 import com.electronics.store.model.BasketItem;
 import com.electronics.store.model.Deal;
 import com.electronics.store.model.DealType;
+import com.electronics.store.model.Money;
 import com.electronics.store.model.Product;
 import com.electronics.store.model.ProductCategory;
 import com.electronics.store.model.Receipt;
 import com.electronics.store.model.ReceiptItem;
+import com.electronics.store.pricing.Bogo50PricingEngine;
+import com.electronics.store.pricing.PricingEngines;
+import com.electronics.store.pricing.ReceiptCache;
+import com.electronics.store.pricing.ReceiptPricer;
 import com.electronics.store.repository.BasketRepository;
-import com.electronics.store.repository.DealRepository;
+import com.electronics.store.reservation.BasketReservations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionOperations;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
 class BasketServiceTest {
 
   private static final String CUSTOMER_USER_ID = "customer";
-  @InjectMocks private BasketService basketService;
+  private BasketService basketService;
   @Mock private BasketRepository basketRepository;
   private Basket customerBasket;
   private Product laptop;
@@ -54,10 +79,29 @@ class BasketServiceTest {
 
   @Mock private ProductService productService;
 
-  @Mock private DealRepository dealRepository;
+  @Mock private DealIndex dealIndex;
+
+  @Mock private BasketReservations basketReservations;
+
+  @Mock private CatalogVersions catalogVersions;
+
+  private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    basketService =
+        new BasketService(
+            new RepositoryBasketStore(
+                basketRepository, BasketItemStorage.COLLECTION, Clock.systemUTC()),
+            productService,
+            basketReservations,
+            new OptimisticRetry(meterRegistry, 3, Duration.ZERO, Duration.ZERO),
+            TransactionOperations.withoutTransaction(),
+            new UserMailboxes(),
+            catalogVersions,
+            new ReceiptPricer(dealIndex, new PricingEngines(List.of(new Bogo50PricingEngine()))),
+            new ReceiptCache(meterRegistry, 100));
     laptop =
         new Product(1L, "Laptop Pro", ProductCategory.ELECTRONICS, BigDecimal.valueOf(1200.00), 10);
 
@@ -145,6 +189,26 @@ class BasketServiceTest {
     assertEquals(3, updatedBasket.getItems().get(0).getQuantity());
     verify(productService, times(1)).decrementProductStock(1L, 3);
     verify(basketRepository, times(1)).save(customerBasket);
+    verify(basketReservations, times(1)).hold(CUSTOMER_USER_ID, 1L, 3);
+  }
+
+  @Test
+  @DisplayName("Should retry adding a product when the basket save loses an optimistic lock race")
+  void addProductToBasket_shouldRetryOnOptimisticLockConflict() {
+    // Arrange
+    when(basketRepository.save(any(Basket.class)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(Basket.class, 1L))
+        .thenReturn(customerBasket);
+
+    // Act
+    basketService.addProductToBasket(1L, 3);
+
+    // Assert
+    verify(productService, times(2)).decrementProductStock(1L, 3);
+    verify(basketRepository, times(2)).save(any(Basket.class));
+    verify(basketReservations, times(1)).hold(CUSTOMER_USER_ID, 1L, 3);
+    assertEquals(
+        1.0, meterRegistry.counter("store.optimistic.conflicts", "operation", "basket.add").count());
   }
 
   @Test
@@ -188,6 +252,7 @@ class BasketServiceTest {
     assertEquals("Not Enough Stock", insufficientStockException.getMessage());
     verify(productService, times(1)).decrementProductStock(1L, 99);
     verify(basketRepository, never()).save(any(Basket.class));
+    verify(basketReservations, never()).hold(any(), any(), anyInt());
   }
 
   @Test
@@ -229,6 +294,7 @@ class BasketServiceTest {
     assertEquals(1, updatedBasket.getItems().get(0).getProductId());
     assertEquals(6, updatedBasket.getItems().get(0).getQuantity());
     verify(productService, times(1)).incrementProductStock(1L, 4);
+    verify(basketReservations, times(1)).release(CUSTOMER_USER_ID, 1L, 4);
     verify(basketRepository, times(1)).save(any(Basket.class));
   }
 
@@ -252,15 +318,62 @@ class BasketServiceTest {
     verify(basketRepository, times(1)).save(any(Basket.class));
   }
 
+  @Test
+  @DisplayName("Should net batch operations per product and change stock in ascending id order")
+  void updateBasket_shouldApplyNetStockChangesInProductIdOrder() {
+    // Arrange
+    customerBasket.getItems().add(new BasketItem(5L, 4));
+    when(basketRepository.save(any(Basket.class))).thenReturn(customerBasket);
+    List<BasketOperation> operations =
+        List.of(
+            new BasketOperation(BasketOperationType.ADD, 9L, 2),
+            new BasketOperation(BasketOperationType.REMOVE, 5L, 3),
+            new BasketOperation(BasketOperationType.ADD, 1L, 5),
+            new BasketOperation(BasketOperationType.REMOVE, 1L, 1));
+
+    // Act
+    Basket updatedBasket = basketService.updateBasket(operations);
+
+    // Assert
+    InOrder stockOrder = inOrder(productService);
+    stockOrder.verify(productService).decrementProductStock(1L, 4);
+    stockOrder.verify(productService).incrementProductStock(5L, 3);
+    stockOrder.verify(productService).decrementProductStock(9L, 2);
+    assertEquals(1, updatedBasket.findItem(5L).getQuantity());
+    assertEquals(4, updatedBasket.findItem(1L).getQuantity());
+    assertEquals(2, updatedBasket.findItem(9L).getQuantity());
+    verify(basketRepository, times(1)).save(customerBasket);
+    verify(basketReservations).hold(CUSTOMER_USER_ID, 1L, 4);
+    verify(basketReservations).release(CUSTOMER_USER_ID, 5L, 3);
+    verify(basketReservations).hold(CUSTOMER_USER_ID, 9L, 2);
+  }
+
+  @Test
+  @DisplayName("Should apply nothing from a batch when one of its products lacks stock")
+  void updateBasket_shouldNotSaveWhenAnyProductLacksStock() {
+    // Arrange
+    doThrow(new InsufficientStockException("Insufficient stock for product ID 2"))
+        .when(productService)
+        .decrementProductStock(2L, 60);
+    List<BasketOperation> operations =
+        List.of(
+            new BasketOperation(BasketOperationType.ADD, 1L, 1),
+            new BasketOperation(BasketOperationType.ADD, 2L, 60));
+
+    // Act & Assert
+    assertThrows(InsufficientStockException.class, () -> basketService.updateBasket(operations));
+    verify(basketRepository, never()).save(any(Basket.class));
+    verify(basketReservations, never()).hold(any(), anyLong(), anyInt());
+  }
+
   @Test
   @DisplayName("Should calculate receipt correctly with no deals applied")
   void calculateReceipt_shouldCalculateReceiptWithNoDealsApplied() {
     // Arrange
     customerBasket.getItems().add(new BasketItem(laptop.getId(), 1));
     customerBasket.getItems().add(new BasketItem(mouse.getId(), 2));
-    when(productService.findProductById(1L)).thenReturn(laptop);
-    when(productService.findProductById(2L)).thenReturn(mouse);
-    when(dealRepository.findByProductId(anyLong())).thenReturn(Optional.empty());
+    when(productService.findProductsById(List.of(1L, 2L)))
+        .thenReturn(Map.of(1L, laptop, 2L, mouse));
 
     // Act
     Receipt receipt = basketService.calculateReceipt();
@@ -283,10 +396,11 @@ class BasketServiceTest {
             .findFirst();
     assertTrue(mouseReceiptItemOptional.isPresent());
     assertNull(mouseReceiptItemOptional.get().getDealApplied());
-    assertEquals(BigDecimal.valueOf(1250.0), receipt.getTotalPrice());
+    assertEquals(Money.ofMinor(125_000), receipt.getTotalPrice());
 
-    verify(productService, times(2)).findProductById(anyLong());
-    verify(dealRepository, times(2)).findByProductId(anyLong());
+    verify(productService, times(1)).findProductsById(anyCollection());
+    verify(dealIndex).find(1L);
+    verify(dealIndex).find(2L);
   }
 
   @Test
@@ -294,10 +408,10 @@ class BasketServiceTest {
   void calculateReceipt_shouldCalculateReceiptWithBOGO50DealEvenQuantity() {
     // Arrange
     customerBasket.getItems().add(new BasketItem(laptop.getId(), 2));
-    when(productService.findProductById(1L)).thenReturn(laptop);
+    when(productService.findProductsById(List.of(1L))).thenReturn(Map.of(1L, laptop));
     Deal bogo50Deal =
-            new Deal(1L, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusHours(7));
-    when(dealRepository.findByProductId(1L)).thenReturn(Optional.of(bogo50Deal));
+        new Deal(1L, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusHours(7));
+    when(dealIndex.find(1L)).thenReturn(bogo50Deal);
 
     // Act
     Receipt receipt = basketService.calculateReceipt();
@@ -311,12 +425,11 @@ class BasketServiceTest {
     ReceiptItem laptopItem = receipt.getItems().get(0);
     assertEquals(1L, laptopItem.getProductId());
     assertEquals(2, laptopItem.getQuantity());
-    assertEquals(0, laptopItem.getPriceAfterDeal().compareTo(BigDecimal.valueOf(600.00)));
+    assertEquals(Money.ofMinor(60_000), laptopItem.getPriceAfterDeal());
     assertEquals("BOGO50", laptopItem.getDealApplied());
-    assertEquals(0, receipt.getTotalPrice().compareTo(BigDecimal.valueOf(1800.00)));
+    assertEquals(Money.ofMinor(180_000), receipt.getTotalPrice());
 
-    verify(productService, times(1)).findProductById(anyLong());
-    verify(dealRepository, times(1)).findByProductId(anyLong());
+    verify(productService, times(1)).findProductsById(anyCollection());
   }
 
   @Test
@@ -324,10 +437,10 @@ class BasketServiceTest {
   void calculateReceipt_shouldCalculateReceiptWithBOGO50DealOddQuantity() {
     // Arrange
     customerBasket.getItems().add(new BasketItem(laptop.getId(), 3));
-    when(productService.findProductById(1L)).thenReturn(laptop);
+    when(productService.findProductsById(List.of(1L))).thenReturn(Map.of(1L, laptop));
     Deal bogo50Deal =
         new Deal(1L, laptop.getId(), DealType.BOGO50, LocalDateTime.now().plusHours(7));
-    when(dealRepository.findByProductId(1L)).thenReturn(Optional.of(bogo50Deal));
+    when(dealIndex.find(1L)).thenReturn(bogo50Deal);
 
     // Act
     Receipt receipt = basketService.calculateReceipt();
@@ -341,12 +454,100 @@ class BasketServiceTest {
     ReceiptItem laptopItem = receipt.getItems().get(0);
     assertEquals(1L, laptopItem.getProductId());
     assertEquals(3, laptopItem.getQuantity());
-    assertEquals(0, laptopItem.getPriceAfterDeal().compareTo(BigDecimal.valueOf(600.00)));
+    assertEquals(Money.ofMinor(60_000), laptopItem.getPriceAfterDeal());
     assertEquals("BOGO50", laptopItem.getDealApplied());
-    assertEquals(0, receipt.getTotalPrice().compareTo(BigDecimal.valueOf(3000.00)));
+    assertEquals(Money.ofMinor(300_000), receipt.getTotalPrice());
 
-    verify(productService, times(1)).findProductById(anyLong());
-    verify(dealRepository, times(1)).findByProductId(anyLong());
+    verify(productService, times(1)).findProductsById(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should reuse the receipt until the basket or the catalog version moves")
+  void calculateReceipt_shouldReuseReceiptWhileVersionsMatch() {
+    // Arrange
+    customerBasket.getItems().add(new BasketItem(laptop.getId(), 1));
+    customerBasket.setVersion(3L);
+    when(productService.findProductsById(List.of(1L))).thenReturn(Map.of(1L, laptop));
+
+    // Act
+    Receipt first = basketService.calculateReceipt();
+    Receipt second = basketService.calculateReceipt();
+    when(catalogVersions.dealVersion()).thenReturn(1L);
+    Receipt afterDealChange = basketService.calculateReceipt();
+    customerBasket.setVersion(4L);
+    Receipt afterBasketChange = basketService.calculateReceipt();
+
+    // Assert
+    assertSame(first, second);
+    assertNotSame(second, afterDealChange);
+    assertNotSame(afterDealChange, afterBasketChange);
+    assertEquals(first, afterBasketChange);
+    verify(productService, times(3)).findProductsById(anyCollection());
+    assertEquals(1.0, meterRegistry.counter("store.receipts.cache", "result", "hit").count());
+  }
+
+  @Test
+  @DisplayName("Should stream a large receipt in chunks with the same totals as the full receipt")
+  void streamReceipt_shouldPriceInChunksWithSameTotals() {
+    // Arrange
+    Map<Long, Product> products = new HashMap<>();
+    for (long productId = 1; productId <= 1200; productId++) {
+      products.put(
+          productId,
+          new Product(
+              productId, "Book " + productId, ProductCategory.BOOKS, BigDecimal.valueOf(10), 5));
+      customerBasket.getItems().add(new BasketItem(productId, (int) (productId % 3) + 1));
+    }
+    when(productService.findUnmanagedProductsById(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Map<Long, Product> found = new HashMap<>();
+              for (Long productId : invocation.<Collection<Long>>getArgument(0)) {
+                found.put(productId, products.get(productId));
+              }
+              return found;
+            });
+    when(dealIndex.find(anyLong()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Long>getArgument(0) % 2 == 0
+                    ? new Deal(1L, invocation.getArgument(0), DealType.BOGO50, null)
+                    : null);
+    List<Integer> chunkSizes = new ArrayList<>();
+
+    // Act
+    ReceiptPricer.Totals totals =
+        basketService.streamReceipt(customerBasket, chunk -> chunkSizes.add(chunk.size()));
+    when(productService.findProductsById(anyCollection())).thenReturn(products);
+    Receipt receipt = basketService.calculateReceipt(customerBasket);
+
+    // Assert
+    assertEquals(List.of(500, 500, 200), chunkSizes);
+    assertEquals(receipt.getTotalPrice(), totals.totalPrice());
+    assertEquals(receipt.getDealsApplied(), totals.dealsApplied());
+    verify(productService, times(3)).checkProductsExist(anyCollection());
+    verify(productService, times(3)).findUnmanagedProductsById(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should check every product before streaming the first chunk of a receipt")
+  void streamReceipt_shouldFailBeforeFirstChunkWhenProductIsMissing() {
+    // Arrange
+    for (long productId = 1; productId <= 600; productId++) {
+      customerBasket.getItems().add(new BasketItem(productId, 1));
+    }
+    doNothing()
+        .doThrow(new ProductNotFoundException("Product with ID 600 not found."))
+        .when(productService)
+        .checkProductsExist(anyCollection());
+    List<List<ReceiptItem>> chunks = new ArrayList<>();
+
+    // Act & Assert
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> basketService.streamReceipt(customerBasket, chunks::add));
+    assertTrue(chunks.isEmpty());
+    verify(productService, never()).findUnmanagedProductsById(anyCollection());
   }
 
   @Test
@@ -359,7 +560,8 @@ class BasketServiceTest {
     assertNotNull(receipt);
     assertTrue(receipt.getItems().isEmpty());
     assertTrue(receipt.getDealsApplied().isEmpty());
-    assertEquals(0, receipt.getTotalPrice().compareTo(BigDecimal.valueOf(0)));
+    assertEquals(Money.ZERO, receipt.getTotalPrice());
+    verify(dealIndex, never()).find(anyLong());
   }
 
   @Test
@@ -370,13 +572,13 @@ class BasketServiceTest {
     customerBasket.getItems().add(new BasketItem(999L, 2));
     doThrow(new ProductNotFoundException("Product with ID 999 not found."))
         .when(productService)
-        .findProductById(999L);
+        .findProductsById(List.of(999L));
 
     ProductNotFoundException productNotFoundException =
         assertThrows(ProductNotFoundException.class, () -> basketService.calculateReceipt());
     assertEquals("Product with ID 999 not found.", productNotFoundException.getMessage());
-    verify(productService, times(1)).findProductById(999L);
-    verify(dealRepository, never()).findByProductId(999L);
+    verify(productService, times(1)).findProductsById(List.of(999L));
+    verify(dealIndex, never()).find(anyLong());
   }
 
     @Test
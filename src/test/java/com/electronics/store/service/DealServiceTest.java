@@ -7,6 +7,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.electronics.store.catalog.DealIndex;
+import com.electronics.store.exception.MalformedRequestException;
 import com.electronics.store.exception.ProductNotFoundException;
 import com.electronics.store.model.Deal;
 import com.electronics.store.model.DealType;
@@ -30,6 +32,8 @@ class DealServiceTest {
 
   @Mock private DealRepository dealRepository;
 
+  @Mock private DealIndex dealIndex;
+
   @InjectMocks private DealService dealService;
 
   private Product laptop;
@@ -56,6 +60,7 @@ class DealServiceTest {
     assertEquals(DealType.BOGO50, deal.getDealType());
     verify(productRepository, times(1)).existsById(laptop.getId());
     verify(dealRepository, times(1)).save(any(Deal.class));
+    verify(dealIndex).add(deal);
   }
 
   @Test
@@ -77,6 +82,28 @@ class DealServiceTest {
     verify(dealRepository, never()).save(any(Deal.class));
   }
 
+  @Test
+  @DisplayName("Should reject a deal that does not start before it expires")
+  void createDeal_shouldRejectDealStartingAfterExpiration() {
+    // Arrange
+    LocalDateTime start = LocalDateTime.now().plusDays(7);
+    Deal deal = new Deal(null, laptop.getId(), DealType.BOGO50, start, start.minusDays(1));
+    when(productRepository.existsById(laptop.getId())).thenReturn(true);
+
+    // Act & Assert
+    assertThrows(MalformedRequestException.class, () -> dealService.createDeal(deal));
+    verify(dealRepository, never()).save(any(Deal.class));
+    verify(dealIndex, never()).add(any(Deal.class));
+  }
+
+  @Test
+  @DisplayName("Deal should not be considered active before its start date")
+  void dealShouldNotBeActiveBeforeStartDate() {
+    LocalDateTime start = LocalDateTime.now().plusDays(1);
+    Deal deal = new Deal(1L, laptop.getId(), DealType.BOGO50, start, start.plusDays(7));
+    assertFalse(deal.isActive());
+  }
+
     @Test
     @DisplayName("Deal should be considered active if its expiration date is in the future")
     void dealShouldBeActiveIfExpirationDateInFuture() {
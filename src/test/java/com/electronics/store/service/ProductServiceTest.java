@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
@@ -13,23 +14,30 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.electronics.store.availability.StockAvailabilityFeed;
+import com.electronics.store.catalog.CatalogVersions;
 import com.electronics.store.exception.InsufficientStockException;
 import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.inventory.DatabaseInventoryEngine;
+import com.electronics.store.inventory.StockBuckets;
+import com.electronics.store.inventory.StockDeltaWriter;
+import com.electronics.store.ledger.StockLedger;
 import com.electronics.store.model.Product;
 import com.electronics.store.model.ProductCategory;
 import com.electronics.store.repository.ProductRepository;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
@@ -43,7 +51,15 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private StockDeltaWriter stockDeltaWriter;
+
+  @Mock private StockBuckets stockBuckets;
+
+  @Mock private StockAvailabilityFeed stockAvailabilityFeed;
+
+  @Mock private CatalogVersions catalogVersions;
+
     private ProductService productService;
 
     private Product laptop;
@@ -53,6 +69,13 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        productService =
+            new ProductService(
+                productRepository,
+                new DatabaseInventoryEngine(productRepository, stockDeltaWriter, stockBuckets),
+                StockLedger.DISABLED,
+                stockAvailabilityFeed,
+                catalogVersions);
         laptop = new Product(1L, "Laptop Pro", ProductCategory.ELECTRONICS, BigDecimal.valueOf(1200.00), 10);
     mouse =
         new Product(
@@ -135,19 +158,18 @@ class ProductServiceTest {
     }
 
   @Test
-  @DisplayName("Should decrement product stock")
+  @DisplayName("Should decrement product stock with a single conditional update")
   void decrementProductStock_shouldDecrementProductStock() {
     // Arrange
-    when(productRepository.findById(1L)).thenReturn(Optional.of(laptop));
-    when(productRepository.save(any(Product.class))).thenReturn(laptop);
+    when(productRepository.decrementStockIfAvailable(1L, 3)).thenReturn(1);
 
     // Act
     productService.decrementProductStock(laptop.getId(), 3);
 
     // Assert : Verify
-    assertEquals(7, laptop.getStock());
-    verify(productRepository, times(1)).findById(1L);
-    verify(productRepository, times(1)).save(laptop);
+    verify(productRepository, times(1)).decrementStockIfAvailable(1L, 3);
+    verify(productRepository, never()).findById(any());
+    verify(productRepository, never()).save(any(Product.class));
   }
 
   @Test
@@ -155,6 +177,7 @@ class ProductServiceTest {
       "Should throw InsufficientStockException when attempting to decrement stock beyond available quantity")
   void decrementProductStock_shouldThrowInsufficientStockException() {
     // Arrange
+    when(productRepository.decrementStockIfAvailable(1L, 999)).thenReturn(0);
     when(productRepository.findById(1L)).thenReturn(Optional.of(laptop));
 
     // Act
@@ -175,6 +198,7 @@ class ProductServiceTest {
       "Should throw ProductNotFoundException when attempting to decrement stock for a non-existent product")
   void decrementProductStock_shouldThrowProductNotFoundException() {
     // Arrange
+    when(productRepository.decrementStockIfAvailable(999L, 1)).thenReturn(0);
     when(productRepository.findById(999L)).thenReturn(Optional.empty());
 
     // Act
@@ -189,19 +213,18 @@ class ProductServiceTest {
   }
 
   @Test
-  @DisplayName("Should successfully increment product stock and save the updated product")
+  @DisplayName("Should increment product stock with a single update")
   void incrementProductStock_shouldIncrementProductStockSuccessfully() {
     // Arrange
-    when(productRepository.findById(1L)).thenReturn(Optional.of(laptop));
-    when(productRepository.save(any(Product.class))).thenReturn(laptop);
+    when(productRepository.incrementStock(1L, 3)).thenReturn(1);
 
     // Act
     productService.incrementProductStock(laptop.getId(), 3);
 
     // Assert : Verify
-    assertEquals(13, laptop.getStock());
-    verify(productRepository, times(1)).findById(1L);
-    verify(productRepository, times(1)).save(laptop);
+    verify(productRepository, times(1)).incrementStock(1L, 3);
+    verify(productRepository, never()).findById(any());
+    verify(productRepository, never()).save(any(Product.class));
   }
 
   @Test
@@ -210,7 +233,7 @@ class ProductServiceTest {
   void
       incrementProductStock_shouldThrowProductNotFoundExceptionWhenIncrementingStockForNonExistentProduct() {
     // Arrange
-    when(productRepository.findById(999L)).thenReturn(Optional.empty());
+    when(productRepository.incrementStock(999L, 1)).thenReturn(0);
 
     // Act
     ProductNotFoundException productNotFoundException =
@@ -219,45 +242,63 @@ class ProductServiceTest {
 
     // Assert
     assertEquals("Product with ID 999 not found.", productNotFoundException.getMessage());
-    verify(productRepository, times(1)).findById(999L);
     verify(productRepository, never()).save(any(Product.class));
   }
 
   @Test
-  @DisplayName("Concurrent stock decrement should be thread-safe and result in correct final stock")
+  @DisplayName("Concurrent stock decrement should never oversell and should not lose updates")
   void decrementProductStock_concurrentStockDecrementShouldBeThreadSafe()
       throws InterruptedException {
-    // Arrange
-    int originalStock = 197;
-    Product concurrentProduct =
-        new Product(
-            2L,
-            "Head Phone",
-            ProductCategory.ELECTRONICS,
-            BigDecimal.valueOf(1200.00),
-            originalStock);
-      when(productRepository.findById(2L)).thenReturn(Optional.of(concurrentProduct));
-    when(productRepository.save(any(Product.class))).thenReturn(concurrentProduct);
-
-    // Act
+    // Arrange : the mocked repository behaves like the conditional UPDATE on the product row
+    int originalStock = 100;
+    AtomicInteger stock = new AtomicInteger(originalStock);
+    when(productRepository.decrementStockIfAvailable(eq(2L), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int quantity = invocation.getArgument(1);
+              int current;
+              do {
+                current = stock.get();
+                if (current < quantity) {
+                  return 0;
+                }
+              } while (!stock.compareAndSet(current, current - quantity));
+              return 1;
+            });
+    when(productRepository.findById(2L))
+        .thenAnswer(
+            invocation ->
+                Optional.of(
+                    new Product(
+                        2L,
+                        "Head Phone",
+                        ProductCategory.ELECTRONICS,
+                        BigDecimal.valueOf(1200.00),
+                        stock.get())));
+
+    // Act : 16 threads ask for 7 units each, only 14 of them can be served from 100 units
     int numThreads = 16;
     int perThreadDecrement = 7;
+    AtomicInteger rejected = new AtomicInteger();
     ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
     for (int i = 0; i < numThreads; i++) {
       executorService.submit(
           () -> {
-            productService.decrementProductStock(2L, perThreadDecrement);
+            try {
+              productService.decrementProductStock(2L, perThreadDecrement);
+            } catch (InsufficientStockException e) {
+              rejected.incrementAndGet();
+            }
           });
     }
     executorService.shutdown();
-    boolean result = executorService.awaitTermination(1000, TimeUnit.SECONDS);
+    assertTrue(executorService.awaitTermination(1000, TimeUnit.SECONDS));
 
     // Assert
-    assertEquals(
-        originalStock - numThreads * perThreadDecrement,
-        concurrentProduct.getStock()); // 197 - 7*16 = 85
-    verify(productRepository, times(numThreads)).findById(2L);
-    verify(productRepository, times(numThreads)).save(concurrentProduct);
+    assertEquals(2, rejected.get());
+    assertEquals(originalStock - 14 * perThreadDecrement, stock.get()); // 100 - 7*14 = 2
+    verify(productRepository, times(numThreads)).decrementStockIfAvailable(2L, perThreadDecrement);
+    verify(productRepository, never()).save(any(Product.class));
   }
 
   @Test
@@ -383,6 +424,39 @@ class ProductServiceTest {
     verify(productRepository, times(1)).findAll(any(Specification.class), eq(pageable));
   }
 
+  @Test
+  @DisplayName("Should load several products with a single query")
+  void findProductsById_shouldLoadAllProductsInOneQuery() {
+    // Arrange
+    List<Long> productIds = List.of(laptop.getId(), mouse.getId());
+    when(productRepository.findAllById(productIds)).thenReturn(List.of(mouse, laptop));
+
+    // Act
+    Map<Long, Product> products = productService.findProductsById(productIds);
+
+    // Assert
+    assertEquals(laptop, products.get(laptop.getId()));
+    assertEquals(mouse, products.get(mouse.getId()));
+    verify(productRepository, times(1)).findAllById(productIds);
+    verify(productRepository, never()).findById(any());
+  }
+
+  @Test
+  @DisplayName("Should throw ProductNotFoundException when one of several products is missing")
+  void findProductsById_shouldThrowWhenAProductIsMissing() {
+    // Arrange
+    List<Long> productIds = List.of(laptop.getId(), 999L);
+    when(productRepository.findAllById(productIds)).thenReturn(List.of(laptop));
+
+    // Act
+    ProductNotFoundException productNotFoundException =
+        assertThrows(
+            ProductNotFoundException.class, () -> productService.findProductsById(productIds));
+
+    // Assert
+    assertEquals("Product with ID 999 not found.", productNotFoundException.getMessage());
+  }
+
     @Test
     void removeProduct() {
       }
@@ -0,0 +1,142 @@
+package com.electronics.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronics.store.catalog.DealIndex;
+import com.electronics.store.dto.QuoteBasket;
+import com.electronics.store.dto.QuoteItem;
+import com.electronics.store.exception.ProductNotFoundException;
+import com.electronics.store.model.Deal;
+import com.electronics.store.model.DealType;
+import com.electronics.store.model.Money;
+import com.electronics.store.model.Product;
+import com.electronics.store.model.ProductCategory;
+import com.electronics.store.model.Receipt;
+import com.electronics.store.pricing.Bogo50PricingEngine;
+import com.electronics.store.pricing.PricingEngines;
+import com.electronics.store.pricing.ReceiptPricer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteServiceTest {
+  @Mock private ProductService productService;
+
+  @Mock private DealIndex dealIndex;
+
+  private QuoteService quoteService;
+  private Product laptop;
+  private Product mouse;
+
+  @BeforeEach
+  void setUp() {
+    quoteService =
+        new QuoteService(
+            productService,
+            new ReceiptPricer(dealIndex, new PricingEngines(List.of(new Bogo50PricingEngine()))));
+    laptop =
+        new Product(1L, "Laptop Pro", ProductCategory.ELECTRONICS, BigDecimal.valueOf(1200.00), 10);
+    mouse =
+        new Product(
+            2L, "Wireless Mouse", ProductCategory.ELECTRONICS, BigDecimal.valueOf(25.00), 50);
+  }
+
+  @Test
+  @DisplayName("Should price many baskets in request order with one product lookup")
+  void quote_shouldPriceBasketsInOrderWithOneLookup() {
+    // Arrange
+    when(productService.findUnmanagedProductsById(List.of(1L, 2L)))
+        .thenReturn(Map.of(1L, laptop, 2L, mouse));
+    when(dealIndex.find(1L)).thenReturn(new Deal(1L, 1L, DealType.BOGO50, null));
+    List<QuoteBasket> baskets = new ArrayList<>();
+    for (int quantity = 1; quantity <= 50; quantity++) {
+      baskets.add(
+          new QuoteBasket(List.of(new QuoteItem(1L, quantity), new QuoteItem(2L, quantity))));
+    }
+
+    // Act
+    List<Receipt> receipts = quoteService.quote(baskets);
+
+    // Assert
+    assertEquals(50, receipts.size());
+    for (int quantity = 1; quantity <= 50; quantity++) {
+      long laptopCents = 120_000L * quantity - 60_000L * (quantity / 2);
+      long mouseCents = 2_500L * quantity;
+      assertEquals(
+          Money.ofMinor(laptopCents + mouseCents), receipts.get(quantity - 1).getTotalPrice());
+    }
+    verify(productService, times(1)).findUnmanagedProductsById(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should load the products of a large quote in chunks of 500 ids")
+  void quote_shouldLoadProductsInChunks() {
+    // Arrange
+    List<QuoteItem> items = new ArrayList<>();
+    for (long productId = 1; productId <= 501; productId++) {
+      items.add(new QuoteItem(productId, 1));
+    }
+    when(productService.findUnmanagedProductsById(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Map<Long, Product> products = new HashMap<>();
+              for (Long productId : invocation.<List<Long>>getArgument(0)) {
+                products.put(
+                    productId,
+                    new Product(
+                        productId, "Cable", ProductCategory.ELECTRONICS, BigDecimal.ONE, 10));
+              }
+              return products;
+            });
+
+    // Act
+    Receipt receipt = quoteService.quote(List.of(new QuoteBasket(items))).get(0);
+
+    // Assert
+    assertEquals(501, receipt.getItems().size());
+    verify(productService, times(2)).findUnmanagedProductsById(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should add up the quantities of a product listed twice in one basket")
+  void quote_shouldMergeRepeatedProducts() {
+    // Arrange
+    when(productService.findUnmanagedProductsById(List.of(1L))).thenReturn(Map.of(1L, laptop));
+    when(dealIndex.find(1L)).thenReturn(new Deal(1L, 1L, DealType.BOGO50, null));
+    QuoteBasket basket = new QuoteBasket(List.of(new QuoteItem(1L, 1), new QuoteItem(1L, 1)));
+
+    // Act
+    Receipt receipt = quoteService.quote(List.of(basket)).get(0);
+
+    // Assert
+    assertEquals(1, receipt.getItems().size());
+    assertEquals(2, receipt.getItems().get(0).getQuantity());
+    assertEquals(Money.ofMinor(180_000), receipt.getTotalPrice());
+  }
+
+  @Test
+  @DisplayName("Should fail the whole request when a product does not exist")
+  void quote_shouldPropagateProductNotFoundException() {
+    // Arrange
+    when(productService.findUnmanagedProductsById(List.of(999L)))
+        .thenThrow(new ProductNotFoundException("Product with ID 999 not found."));
+    QuoteBasket basket = new QuoteBasket(List.of(new QuoteItem(999L, 1)));
+
+    // Act & Assert
+    assertThrows(ProductNotFoundException.class, () -> quoteService.quote(List.of(basket)));
+  }
+}